@@ -0,0 +1,49 @@
+package com.builder.database.api;
+
+import com.builder.database.dto.GenericResultRowDto;
+import com.builder.database.dto.SelectPageDto;
+import com.builder.database.dto.SelectQueryRequestDto;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Walks a keyset-paginated select lazily: the next page is only requested once the
+ * rows of the current one have been consumed.
+ */
+public class KeysetPageIterator implements Iterator<GenericResultRowDto> {
+
+    private final SelectQueryRequestDto request;
+    private final Function<SelectQueryRequestDto, SelectPageDto> pageFetcher;
+
+    private Iterator<GenericResultRowDto> currentPage = Collections.emptyIterator();
+    private String nextPageToken;
+    private boolean lastPageFetched;
+
+    public KeysetPageIterator(SelectQueryRequestDto request, Function<SelectQueryRequestDto, SelectPageDto> pageFetcher) {
+        this.request = request;
+        this.pageFetcher = pageFetcher;
+        this.nextPageToken = request.getPageToken();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentPage.hasNext() && !lastPageFetched) {
+            SelectPageDto page = pageFetcher.apply(request.toBuilder().pageToken(nextPageToken).build());
+            currentPage = page.getRows() != null ? page.getRows().iterator() : Collections.emptyIterator();
+            nextPageToken = page.getNextPageToken();
+            lastPageFetched = nextPageToken == null;
+        }
+        return currentPage.hasNext();
+    }
+
+    @Override
+    public GenericResultRowDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPage.next();
+    }
+}
@@ -2,6 +2,7 @@ package com.builder.database.api;
 
 import com.builder.database.dto.*;
 
+import java.util.Iterator;
 import java.util.List;
 
 public interface TableClient {
@@ -11,4 +12,10 @@ public interface TableClient {
     void createIndex(String schemaName, String tableName, IndexDefinitionDto indexDto);
 
     List<GenericResultRowDto> selectQuery(SelectQueryRequestDto requestDto);
+
+    SelectPageDto selectPage(SelectQueryRequestDto requestDto);
+
+    default Iterator<GenericResultRowDto> selectIterator(SelectQueryRequestDto requestDto) {
+        return new KeysetPageIterator(requestDto, this::selectPage);
+    }
 }
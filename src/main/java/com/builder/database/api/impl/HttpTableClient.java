@@ -3,6 +3,7 @@ package com.builder.database.api.impl;
 import com.builder.database.api.TableClient;
 import com.builder.database.dto.GenericResultRowDto;
 import com.builder.database.dto.IndexDefinitionDto;
+import com.builder.database.dto.SelectPageDto;
 import com.builder.database.dto.SelectQueryRequestDto;
 import com.builder.database.dto.TableCreateRequestDto;
 import org.springframework.http.ResponseEntity;
@@ -41,4 +42,14 @@ public class HttpTableClient implements TableClient {
         );
         return List.of(Objects.requireNonNull(response.getBody()));
     }
+
+    @Override
+    public SelectPageDto selectPage(SelectQueryRequestDto requestDto) {
+        ResponseEntity<SelectPageDto> response = restTemplate.postForEntity(
+                baseUrl + "/tables/select/page",
+                requestDto,
+                SelectPageDto.class
+        );
+        return Objects.requireNonNull(response.getBody());
+    }
 }
@@ -3,6 +3,7 @@ package com.builder.database.api.impl;
 import com.builder.database.api.TableClient;
 import com.builder.database.dto.GenericResultRowDto;
 import com.builder.database.dto.IndexDefinitionDto;
+import com.builder.database.dto.SelectPageDto;
 import com.builder.database.dto.SelectQueryRequestDto;
 import com.builder.database.dto.TableCreateRequestDto;
 import com.builder.database.service.TableService;
@@ -35,4 +36,9 @@ public class LocalTableClient implements TableClient {
     public List<GenericResultRowDto> selectQuery(SelectQueryRequestDto requestDto) {
         return tableService.executeSelectQuery(requestDto);
     }
+
+    @Override
+    public SelectPageDto selectPage(SelectQueryRequestDto requestDto) {
+        return tableService.executeSelectPage(requestDto);
+    }
 }
@@ -0,0 +1,16 @@
+package com.builder.database.builder;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A parameterized statement template plus one bind-value array per execution.
+ */
+@Getter
+@AllArgsConstructor
+public class BatchSql {
+    private final String sql;
+    private final List<Object[]> batchArgs;
+}
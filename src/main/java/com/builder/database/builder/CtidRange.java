@@ -0,0 +1,8 @@
+package com.builder.database.builder;
+
+/**
+ * Half-open range of heap blocks, {@code [startBlock, endBlock)}. A null end leaves the range open
+ * so rows appended past the planned size are still claimed by the last range.
+ */
+public record CtidRange(long startBlock, Long endBlock) {
+}
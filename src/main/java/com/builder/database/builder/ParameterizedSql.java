@@ -0,0 +1,20 @@
+package com.builder.database.builder;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A statement with positional placeholders and the values bound to them, in order.
+ */
+@Getter
+@AllArgsConstructor
+public class ParameterizedSql {
+    private final String sql;
+    private final List<Object> parameters;
+
+    public Object[] parameterArray() {
+        return parameters.toArray();
+    }
+}
@@ -0,0 +1,48 @@
+package com.builder.database.builder;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+/**
+ * Naming of child partitions. RANGE children carry their period start in the name, which is
+ * what retention reads back to decide what has expired.
+ */
+public final class PartitionLayout {
+
+    public static final String DEFAULT_SUFFIX = "_default";
+    private static final String RANGE_INFIX = "_p";
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private PartitionLayout() {
+    }
+
+    public static String rangePartitionName(String table, LocalDate periodStart) {
+        return table + RANGE_INFIX + PERIOD_FORMAT.format(periodStart);
+    }
+
+    public static String listPartitionName(String table, String suffix) {
+        return table + "_" + suffix;
+    }
+
+    public static String hashPartitionName(String table, int remainder) {
+        return table + "_h" + remainder;
+    }
+
+    public static String defaultPartitionName(String table) {
+        return table + DEFAULT_SUFFIX;
+    }
+
+    public static Optional<LocalDate> rangePeriodStart(String table, String partitionName) {
+        String prefix = table + RANGE_INFIX;
+        if (!partitionName.startsWith(prefix)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(LocalDate.parse(partitionName.substring(prefix.length()), PERIOD_FORMAT));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.builder.database.builder;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encodes string rows into the PostgreSQL COPY wire formats.
+ * Binary encoding writes every value as its UTF-8 bytes, so it is only valid
+ * for targets whose columns are all TEXT (the __tmp_write_ staging tables).
+ */
+public final class PostgresCopyEncoder {
+
+    private static final byte[] BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    private PostgresCopyEncoder() {
+    }
+
+    public static void writeTextRow(OutputStream out, List<String> values) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) sb.append('\t');
+            appendTextValue(sb, values.get(i));
+        }
+        sb.append('\n');
+        out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendTextValue(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> sb.append(c);
+            }
+        }
+    }
+
+    public static void writeBinaryHeader(DataOutputStream out) throws IOException {
+        out.write(BINARY_SIGNATURE);
+        out.writeInt(0); // flags
+        out.writeInt(0); // header extension length
+    }
+
+    public static void writeBinaryRow(DataOutputStream out, List<String> values) throws IOException {
+        out.writeShort(values.size());
+        for (String value : values) {
+            if (value == null) {
+                out.writeInt(-1);
+                continue;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    public static void writeBinaryTrailer(DataOutputStream out) throws IOException {
+        out.writeShort(-1);
+    }
+}
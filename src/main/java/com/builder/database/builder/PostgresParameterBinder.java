@@ -0,0 +1,30 @@
+package com.builder.database.builder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Binds values as untyped parameters so the server infers the type from the
+ * target column, the same way it treats a quoted literal. This lets one
+ * string-valued template feed TEXT staging columns and typed columns alike.
+ */
+public final class PostgresParameterBinder {
+
+    private PostgresParameterBinder() {
+    }
+
+    public static void bind(PreparedStatement ps, Object[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            bind(ps, i + 1, values[i]);
+        }
+    }
+
+    public static void bind(PreparedStatement ps, int index, Object value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.OTHER);
+        } else {
+            ps.setObject(index, value.toString(), Types.OTHER);
+        }
+    }
+}
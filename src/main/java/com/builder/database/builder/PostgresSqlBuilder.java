@@ -2,9 +2,21 @@ package com.builder.database.builder;
 
 import com.builder.database.model.AggregationRequest;
 import com.builder.database.model.ColumnDefinition;
+import com.builder.database.model.FilterCondition;
+import com.builder.database.model.FilterOperator;
 import com.builder.database.model.IndexDefinition;
+import com.builder.database.model.IngestMode;
+import com.builder.database.model.OrderByRequest;
+import com.builder.database.model.PartitionInterval;
+import com.builder.database.model.PartitionSpec;
+import com.builder.database.model.PartitionStrategy;
+import com.builder.database.model.RollupDefinition;
+import com.builder.database.model.SelectQueryRequest;
 import com.builder.database.model.TableDefinitionRequest;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -12,21 +24,141 @@ public class PostgresSqlBuilder implements SqlBuilder {
 
     static final String LAST_UPDATE_DATE = "lastUpdateDate";
     static final String IS_DELETED = "isDeleted";
+    private static final int MAX_FILTER_DEPTH = 32;
+    private static final int MAX_IDENTIFIER_LENGTH = 63;
+    public static final String HLL_HASH = "__hash";
+    public static final String HLL_REGISTER = "__register";
+    public static final String HLL_RANK = "__rank";
+    public static final String SKETCH_VALUE = "__value";
 
     @Override
     public String buildCreateTableSql(TableDefinitionRequest request) {
         String fullTableName = quote(request.getSchemaName()) + "." + quote(request.getTableName());
+        PartitionSpec partition = request.getPartition();
 
         List<String> columnDef = request.getColumns().stream()
-                .map(this::buildActualColumnDefinition)
+                .map(col -> buildActualColumnDefinition(col, partition == null))
                 .collect(Collectors.toList());
 
         columnDef.add(quote(LAST_UPDATE_DATE) + " TIMESTAMP NOT NULL");
         columnDef.add(quote(IS_DELETED) + " BOOLEAN NOT NULL DEFAULT FALSE");
 
+        if (partition == null) {
+            return "CREATE TABLE IF NOT EXISTS " + fullTableName + " (\n" +
+                    String.join(",\n", columnDef) + "\n" +
+                    ");";
+        }
+
+        // A partitioned table can only enforce keys that include the partition column.
+        List<String> keyColumns = request.getColumns().stream()
+                .filter(ColumnDefinition::isPrimaryKey)
+                .map(ColumnDefinition::getName)
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (!keyColumns.isEmpty() && !keyColumns.contains(partition.getColumn())) {
+            keyColumns.add(partition.getColumn());
+        }
+        if (!keyColumns.isEmpty()) {
+            columnDef.add("PRIMARY KEY (" + keyColumns.stream().map(this::quote).collect(Collectors.joining(", ")) + ")");
+        }
+
         return "CREATE TABLE IF NOT EXISTS " + fullTableName + " (\n" +
                 String.join(",\n", columnDef) + "\n" +
-                ");";
+                ") PARTITION BY " + partition.getStrategy().name() + " (" + quote(partition.getColumn()) + ");";
+    }
+
+    @Override
+    public List<String> buildCreatePartitionsSql(TableDefinitionRequest request, LocalDate today) {
+        PartitionSpec partition = request.getPartition();
+        if (partition == null) {
+            return List.of();
+        }
+        String schema = request.getSchemaName();
+        String table = request.getTableName();
+        String parent = quote(schema) + "." + quote(table);
+
+        List<String> statements = new ArrayList<>();
+        switch (partition.getStrategy()) {
+            case RANGE -> {
+                LocalDate period = partition.getInterval().periodStart(today);
+                int premake = partition.getPremake() != null ? partition.getPremake() : 0;
+                for (int i = 0; i <= premake; i++) {
+                    statements.add(buildCreateRangePartitionSql(schema, table, partition.getInterval(),
+                            partition.getInterval().plus(period, i)));
+                }
+            }
+            case LIST -> partition.getListValues().forEach((suffix, values) -> statements.add(
+                    "CREATE TABLE IF NOT EXISTS " + quote(schema) + "." + quote(PartitionLayout.listPartitionName(table, suffix))
+                            + " PARTITION OF " + parent + " FOR VALUES IN ("
+                            + values.stream().map(this::literal).collect(Collectors.joining(", ")) + ");"));
+            case HASH -> {
+                for (int remainder = 0; remainder < partition.getModulus(); remainder++) {
+                    statements.add("CREATE TABLE IF NOT EXISTS " + quote(schema) + "." + quote(PartitionLayout.hashPartitionName(table, remainder))
+                            + " PARTITION OF " + parent + " FOR VALUES WITH (MODULUS " + partition.getModulus()
+                            + ", REMAINDER " + remainder + ");");
+                }
+            }
+        }
+        if (partition.getStrategy() != PartitionStrategy.HASH) {
+            statements.add("CREATE TABLE IF NOT EXISTS " + quote(schema) + "." + quote(PartitionLayout.defaultPartitionName(table))
+                    + " PARTITION OF " + parent + " DEFAULT;");
+        }
+        return statements;
+    }
+
+    @Override
+    public String buildCreateRangePartitionSql(String schema, String table, PartitionInterval interval, LocalDate periodStart) {
+        return "CREATE TABLE IF NOT EXISTS " + quote(schema) + "." + quote(PartitionLayout.rangePartitionName(table, periodStart))
+                + " PARTITION OF " + quote(schema) + "." + quote(table)
+                + " FOR VALUES FROM (" + literal(periodStart.toString()) + ") TO (" + literal(interval.next(periodStart).toString()) + ");";
+    }
+
+    @Override
+    public String buildDetachPartitionSql(String schema, String table, String partition, boolean concurrently) {
+        return "ALTER TABLE " + quote(schema) + "." + quote(table) + " DETACH PARTITION " + quote(schema) + "." + quote(partition)
+                + (concurrently ? " CONCURRENTLY;" : ";");
+    }
+
+    @Override
+    public String buildFinalizeDetachPartitionSql(String schema, String table, String partition) {
+        return "ALTER TABLE " + quote(schema) + "." + quote(table) + " DETACH PARTITION " + quote(schema) + "." + quote(partition) + " FINALIZE;";
+    }
+
+    // CREATE fails while the default partition holds rows of the period, so they are moved out first.
+    @Override
+    public List<String> buildSplitDefaultPartitionSql(String schema, String table, String column,
+                                                      PartitionInterval interval, LocalDate periodStart) {
+        String parent = quote(schema) + "." + quote(table);
+        String defaultPartition = quote(schema) + "." + quote(PartitionLayout.defaultPartitionName(table));
+        String partition = quote(schema) + "." + quote(PartitionLayout.rangePartitionName(table, periodStart));
+        String inPeriod = quote(column) + " >= " + literal(periodStart.toString())
+                + " AND " + quote(column) + " < " + literal(interval.next(periodStart).toString());
+        return List.of(
+                "ALTER TABLE " + parent + " DETACH PARTITION " + defaultPartition + ";",
+                buildCreateRangePartitionSql(schema, table, interval, periodStart),
+                "WITH moved AS (DELETE FROM " + defaultPartition + " WHERE " + inPeriod + " RETURNING *) "
+                        + "INSERT INTO " + partition + " SELECT * FROM moved;",
+                "ALTER TABLE " + parent + " ATTACH PARTITION " + defaultPartition + " DEFAULT;");
+    }
+
+    @Override
+    public String buildDropTableSql(String schema, String table) {
+        return "DROP TABLE IF EXISTS " + quote(schema) + "." + quote(table) + ";";
+    }
+
+    private String literal(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    @Override
+    public List<String> buildCreateTableStatements(TableDefinitionRequest request, LocalDate today) {
+        List<String> statements = new ArrayList<>();
+        if (request.isTemporaryWriteTable()) {
+            statements.add(buildCreateTempWriteTableSql(request));
+        }
+        statements.add(buildCreateTableSql(request));
+        statements.addAll(buildCreatePartitionsSql(request, today));
+        statements.addAll(buildAllCreateIndexSql(request.getSchemaName(), request.getTableName(), request.getIndexes()));
+        return statements;
     }
 
     @Override
@@ -47,26 +179,123 @@ public class PostgresSqlBuilder implements SqlBuilder {
                 ");";
     }
 
-    private String buildActualColumnDefinition(ColumnDefinition col) {
+    private String buildActualColumnDefinition(ColumnDefinition col, boolean inlinePrimaryKey) {
         StringBuilder sb = new StringBuilder();
         sb.append(quote(col.getName())).append(" ").append(col.getType());
         if (col.isNotNull()) sb.append(" NOT NULL");
-        if (col.isPrimaryKey()) sb.append(" PRIMARY KEY");
+        if (col.isPrimaryKey() && inlinePrimaryKey) sb.append(" PRIMARY KEY");
         if (col.getDefaultValue() != null && !col.getDefaultValue().isEmpty()) {
             sb.append(" DEFAULT ").append(col.getDefaultValue());
         }
         return sb.toString();
     }
 
+    @Override
+    public String buildIndexName(String tableName, IndexDefinition index) {
+        if (index.getName() != null) {
+            return index.getName();
+        }
+        requireIndexColumns(index);
+        // Partial indexes on the same columns differ only by predicate, so it goes into the name.
+        String suffix = index.getWhere() != null
+                ? "_" + Integer.toHexString(buildPredicateSql(index.getWhere(), 0).hashCode())
+                : "";
+        String name = String.format("%s_%s_idx", tableName, String.join("_", index.getColumnNames()));
+        // Postgres truncates identifiers to 63 bytes; do it here so the name can be looked up later.
+        return (name.length() + suffix.length() > MAX_IDENTIFIER_LENGTH
+                ? name.substring(0, MAX_IDENTIFIER_LENGTH - suffix.length())
+                : name) + suffix;
+    }
+
     @Override
     public String buildCreateIndexSql(String schemaName, String tableName, IndexDefinition index) {
-        String indexName = String.format("%s_%s_idx", tableName, String.join("_", index.getColumnNames()));
+        return buildIndexSql(schemaName, tableName, index, false);
+    }
+
+    @Override
+    public String buildCreateIndexConcurrentlySql(String schemaName, String tableName, IndexDefinition index) {
+        return buildIndexSql(schemaName, tableName, index, true);
+    }
+
+    @Override
+    public String buildDropIndexConcurrentlySql(String schemaName, String indexName) {
+        return "DROP INDEX CONCURRENTLY IF EXISTS " + quote(schemaName) + "." + quote(indexName) + ";";
+    }
+
+    private String buildIndexSql(String schemaName, String tableName, IndexDefinition index, boolean concurrently) {
+        requireIndexColumns(index);
         String columns = index.getColumnNames().stream().map(this::quote).collect(Collectors.joining(", "));
         String unique = index.isUnique() ? "UNIQUE " : "";
-        String type = index.getIndexType() != null ? "USING " + index.getIndexType() : "";
+        String type = "";
+        if (index.getIndexType() != null) {
+            if (!index.getIndexType().matches("\\w+")) {
+                throw new IllegalArgumentException("Invalid index type: " + index.getIndexType());
+            }
+            type = "USING " + index.getIndexType();
+        }
 
-        return String.format("CREATE %sINDEX IF NOT EXISTS %s ON %s.%s %s (%s);",
-                unique, quote(indexName), quote(schemaName), quote(tableName), type, columns);
+        StringBuilder sql = new StringBuilder(String.format("CREATE %sINDEX %sIF NOT EXISTS %s ON %s.%s %s (%s)",
+                unique, concurrently ? "CONCURRENTLY " : "", quote(buildIndexName(tableName, index)),
+                quote(schemaName), quote(tableName), type, columns));
+        if (index.getIncludeColumns() != null && !index.getIncludeColumns().isEmpty()) {
+            sql.append(" INCLUDE (")
+                    .append(index.getIncludeColumns().stream().map(this::quote).collect(Collectors.joining(", ")))
+                    .append(")");
+        }
+        if (index.getWhere() != null) {
+            sql.append(" WHERE ").append(buildPredicateSql(index.getWhere(), 0));
+        }
+        return sql.append(";").toString();
+    }
+
+    private void requireIndexColumns(IndexDefinition index) {
+        if (index.getColumnNames() == null || index.getColumnNames().isEmpty()) {
+            throw new IllegalArgumentException("Index needs at least one column");
+        }
+    }
+
+    // Index predicates are DDL and cannot take bind parameters; values are validated and quoted inline.
+    private String buildPredicateSql(FilterCondition filter, int depth) {
+        FilterOperator operator = requireOperator(filter, depth);
+
+        if (operator == FilterOperator.AND || operator == FilterOperator.OR) {
+            List<String> parts = new ArrayList<>();
+            for (FilterCondition child : requireConditions(filter)) {
+                parts.add(buildPredicateSql(child, depth + 1));
+            }
+            return "(" + String.join(" " + operator.name() + " ", parts) + ")";
+        }
+        if (operator == FilterOperator.NOT) {
+            return "NOT (" + buildPredicateSql(requireSingleCondition(filter), depth + 1) + ")";
+        }
+
+        List<String> values = leafParameters(filter).stream().map(this::predicateLiteral).distinct().toList();
+        String column = filterColumn(filter);
+
+        return switch (operator) {
+            case EQ -> column + " = " + values.get(0);
+            case NE -> column + " <> " + values.get(0);
+            case LT -> column + " < " + values.get(0);
+            case LTE -> column + " <= " + values.get(0);
+            case GT -> column + " > " + values.get(0);
+            case GTE -> column + " >= " + values.get(0);
+            case BETWEEN -> column + " BETWEEN " + values.get(0) + " AND " + values.get(values.size() - 1);
+            case IN -> column + " IN (" + String.join(", ", values) + ")";
+            case IS_NULL -> column + " IS NULL";
+            case IS_NOT_NULL -> column + " IS NOT NULL";
+            case STARTS_WITH -> column + " LIKE " + values.get(0);
+            default -> throw new IllegalStateException("Unexpected leaf operator " + operator);
+        };
+    }
+
+    private String predicateLiteral(Object value) {
+        if (value instanceof Boolean
+                || value instanceof Integer || value instanceof Long || value instanceof BigInteger
+                || value instanceof BigDecimal
+                || (value instanceof Double d && Double.isFinite(d))) {
+            return value.toString();
+        }
+        return literal(value.toString());
     }
 
     @Override
@@ -78,17 +307,78 @@ public class PostgresSqlBuilder implements SqlBuilder {
     }
 
     @Override
-    public String buildSelectQuerySql(String schemaName,
-                                    String tableName,
-                                    List<String> columns,
-                                    Map<String, Object> filters,
-                                    List<AggregationRequest> aggregations) {
+    public ParameterizedSql buildSelectQuerySql(SelectQueryRequest request) {
+        List<String> selectExpressions = new ArrayList<>();
+        selectExpressions.addAll(buildRegularColumnsClause(request.getColumns()));
+        selectExpressions.addAll(buildAggregationClause(request.getAggregations()));
 
-        String fullTableName = quote(schemaName) + "." + quote(tableName);
+        return buildSelectSql(quote(request.getSchemaName()) + "." + quote(request.getTableName()),
+                selectExpressions, request.getColumns(), request);
+    }
 
-        List<String> selectExpressions = new ArrayList<>();
-        selectExpressions.addAll(buildRegularColumnsClause(columns));
-        selectExpressions.addAll(buildAggregationClause(aggregations));
+    @Override
+    public ParameterizedSql buildRollupSelectQuerySql(SelectQueryRequest request, RollupDefinition rollup,
+                                                      TableDefinitionRequest def) {
+        List<String> selectExpressions = new ArrayList<>(buildRegularColumnsClause(request.getColumns()));
+        request.getAggregations().stream()
+                .map(agg -> buildRollupAggregationExpression(agg, def))
+                .forEach(selectExpressions::add);
+
+        return buildSelectSql(quote(request.getSchemaName()) + "." + quote(RollupLayout.tableName(rollup)),
+                selectExpressions, request.getColumns(), request);
+    }
+
+    // Only per-register maxima leave the database, so the column is never sorted or deduplicated.
+    @Override
+    public ParameterizedSql buildHllRegisterSql(SelectQueryRequest request, AggregationRequest agg, int precision) {
+        List<String> groupColumns = buildRegularColumnsClause(request.getColumns());
+        String hash = quote(HLL_HASH);
+
+        List<String> hashedExpressions = new ArrayList<>(groupColumns);
+        hashedExpressions.add("hashtextextended(CAST(" + quote(agg.getColumn()) + " AS TEXT), 0) AS " + hash);
+        ParameterizedSql hashed = buildSelectSql(quote(request.getSchemaName()) + "." + quote(request.getTableName()),
+                hashedExpressions, List.of(), withNonNullColumn(request, agg.getColumn()));
+
+        // The sign bit is dropped so the arithmetic shift cannot smear it into the rank bits.
+        int rankBits = 63 - precision;
+        String register = hash + " & " + ((1L << precision) - 1);
+        String rankBitString = "CAST((" + hash + " >> " + precision + ") & " + ((1L << rankBits) - 1) + " AS BIT(" + rankBits + "))";
+        String rank = "COALESCE(NULLIF(position(B'1' IN " + rankBitString + "), 0), " + (rankBits + 1) + ")";
+
+        List<String> outer = new ArrayList<>(groupColumns);
+        outer.add(register + " AS " + quote(HLL_REGISTER));
+        outer.add("MAX(" + rank + ") AS " + quote(HLL_RANK));
+        List<String> outerGroups = new ArrayList<>(groupColumns);
+        outerGroups.add(quote(HLL_REGISTER));
+
+        String sql = "SELECT " + String.join(", ", outer) + " FROM (" + hashed.getSql() + ") hashed"
+                + " GROUP BY " + String.join(", ", outerGroups);
+        return new ParameterizedSql(sql, hashed.getParameters());
+    }
+
+    @Override
+    public ParameterizedSql buildSketchValueSql(SelectQueryRequest request, AggregationRequest agg) {
+        List<String> expressions = new ArrayList<>(buildRegularColumnsClause(request.getColumns()));
+        expressions.add(quote(agg.getColumn()) + " AS " + quote(SKETCH_VALUE));
+        return buildSelectSql(quote(request.getSchemaName()) + "." + quote(request.getTableName()),
+                expressions, List.of(), withNonNullColumn(request, agg.getColumn()));
+    }
+
+    private SelectQueryRequest withNonNullColumn(SelectQueryRequest request, String column) {
+        FilterCondition notNull = FilterCondition.builder().operator(FilterOperator.IS_NOT_NULL).column(column).build();
+        FilterCondition where = request.getWhere() == null ? notNull
+                : FilterCondition.builder().operator(FilterOperator.AND).conditions(List.of(request.getWhere(), notNull)).build();
+        return SelectQueryRequest.builder()
+                .schemaName(request.getSchemaName())
+                .tableName(request.getTableName())
+                .filters(request.getFilters())
+                .where(where)
+                .build();
+    }
+
+    private ParameterizedSql buildSelectSql(String fullTableName, List<String> selectExpressions,
+                                            List<String> groupByColumns, SelectQueryRequest request) {
+        List<Object> parameters = new ArrayList<>();
 
         String selectClause = selectExpressions.isEmpty() ? "*"
                             : String.join(", ", selectExpressions);
@@ -98,10 +388,82 @@ public class PostgresSqlBuilder implements SqlBuilder {
                 .append(" FROM ")
                 .append(fullTableName);
 
-        appendWhereClause(sql, filters);
-        appendGroupByClause(sql, columns);
+        List<String> conditions = new ArrayList<>(buildFilterConditions(request.getFilters(), parameters));
+        if (request.getWhere() != null) {
+            conditions.add(buildFilterExpression(request.getWhere(), parameters, 0));
+        }
+        if (request.getKeysetValues() != null && !request.getKeysetValues().isEmpty()) {
+            conditions.add(buildKeysetCondition(request.getOrderBy(), request.getKeysetValues(), parameters));
+        }
+
+        appendWhereClause(sql, conditions);
+        appendGroupByClause(sql, groupByColumns);
+        appendOrderByClause(sql, request.getOrderBy());
+        if (request.getLimit() != null) {
+            sql.append(" LIMIT ?");
+            parameters.add(request.getLimit());
+        }
+
+        return new ParameterizedSql(sql.toString(), parameters);
+    }
+
+    @Override
+    public SelectShape buildSelectShape(SelectQueryRequest request) {
+        List<SelectShape.FilterShape> filterShapes = new ArrayList<>();
+        if (request.getFilters() != null) {
+            request.getFilters().forEach((column, value) -> filterShapes.add(new SelectShape.FilterShape(
+                    value == null ? FilterOperator.IS_NULL : FilterOperator.EQ, column, value == null ? 0 : 1, List.of())));
+        }
+
+        List<SelectShape.AggregationShape> aggregationShapes = request.getAggregations() == null ? List.of()
+                : request.getAggregations().stream()
+                        .map(agg -> new SelectShape.AggregationShape(agg.getFunction(), agg.getColumn(), agg.getAlias(), agg.getParameter()))
+                        .toList();
+
+        List<SelectShape.OrderShape> orderShapes = request.getOrderBy() == null ? List.of()
+                : request.getOrderBy().stream()
+                        .map(o -> new SelectShape.OrderShape(o.getColumn(), o.isDescending()))
+                        .toList();
+
+        return new SelectShape(
+                request.getSchemaName(),
+                request.getTableName(),
+                request.getColumns() == null ? List.of() : List.copyOf(request.getColumns()),
+                filterShapes,
+                request.getWhere() == null ? null : buildFilterShape(request.getWhere()),
+                aggregationShapes,
+                orderShapes,
+                request.getKeysetValues() == null ? 0 : request.getKeysetValues().size(),
+                request.getLimit() != null);
+    }
+
+    private SelectShape.FilterShape buildFilterShape(FilterCondition filter) {
+        List<SelectShape.FilterShape> children = filter.getConditions() == null ? List.of()
+                : filter.getConditions().stream().map(this::buildFilterShape).toList();
+        int arity = filter.getOperator() == FilterOperator.IN && filter.getValues() != null
+                ? inListArity(filter.getValues().size())
+                : 0;
+        return new SelectShape.FilterShape(filter.getOperator(), filter.getColumn(), arity, children);
+    }
 
-        return sql.toString();
+    @Override
+    public List<Object> collectSelectParameters(SelectQueryRequest request) {
+        List<Object> parameters = new ArrayList<>();
+        if (request.getFilters() != null) {
+            request.getFilters().values().stream()
+                    .filter(Objects::nonNull)
+                    .forEach(parameters::add);
+        }
+        if (request.getWhere() != null) {
+            collectFilterParameters(request.getWhere(), parameters, 0);
+        }
+        if (request.getKeysetValues() != null && !request.getKeysetValues().isEmpty()) {
+            parameters.addAll(keysetParameters(request.getOrderBy(), request.getKeysetValues()));
+        }
+        if (request.getLimit() != null) {
+            parameters.add(request.getLimit());
+        }
+        return parameters;
     }
 
     private List<String> buildRegularColumnsClause(List<String> columns) {
@@ -141,6 +503,48 @@ public class PostgresSqlBuilder implements SqlBuilder {
                : aggExpr;
     }
 
+    private String buildRollupAggregationExpression(AggregationRequest agg, TableDefinitionRequest def) {
+        String function = agg.getFunction().toUpperCase();
+        String column = agg.getColumn();
+
+        // SUM states are stored as NUMERIC; cast back to what the aggregate returns on the raw column.
+        String aggExpr = switch (function) {
+            case "COUNT" -> column.equals("*")
+                    ? "COALESCE(CAST(SUM(" + quote(RollupLayout.ROW_COUNT) + ") AS BIGINT), 0)"
+                    : "COALESCE(CAST(SUM(" + rollupState("COUNT", column) + ") AS BIGINT), 0)";
+            case "SUM" -> "CAST(SUM(" + rollupState("SUM", column) + ") AS " + sumType(resolveColumnType(column, def)) + ")";
+            case "MIN" -> "MIN(" + rollupState("MIN", column) + ")";
+            case "MAX" -> "MAX(" + rollupState("MAX", column) + ")";
+            case "AVG" -> "CAST(SUM(" + rollupState("SUM", column) + ") / NULLIF(SUM(" + rollupState("COUNT", column) + "), 0) AS "
+                    + avgType(resolveColumnType(column, def)) + ")";
+            default -> throw new IllegalArgumentException("Aggregation " + function + " cannot be answered from a rollup");
+        };
+
+        // Keep the column name PostgreSQL would give the raw aggregate, so both paths return the same keys.
+        String alias = agg.getAlias() != null && !agg.getAlias().isBlank() ? agg.getAlias() : function.toLowerCase();
+        return aggExpr + " AS " + quote(alias);
+    }
+
+    private String sumType(String columnType) {
+        return switch (columnType.toLowerCase()) {
+            case "smallint", "int2", "integer", "int", "int4" -> "BIGINT";
+            case "real", "float4" -> "REAL";
+            case "double precision", "float8" -> "DOUBLE PRECISION";
+            default -> "NUMERIC";
+        };
+    }
+
+    private String avgType(String columnType) {
+        return switch (columnType.toLowerCase()) {
+            case "real", "float4", "double precision", "float8" -> "DOUBLE PRECISION";
+            default -> "NUMERIC";
+        };
+    }
+
+    private String rollupState(String function, String column) {
+        return quote(new RollupLayout.Measure(function, column).columnName());
+    }
+
     private void appendGroupByClause(StringBuilder sql, List<String> columns) {
         if (columns == null || columns.isEmpty()) {
             return;
@@ -155,29 +559,214 @@ public class PostgresSqlBuilder implements SqlBuilder {
         }
     }
 
-    private void appendWhereClause(StringBuilder sql, Map<String, Object> filters) {
-        if (filters == null || filters.isEmpty()) return;
+    private List<String> buildFilterConditions(Map<String, Object> filters, List<Object> parameters) {
+        if (filters == null || filters.isEmpty()) return List.of();
 
-        String whereClause = filters.entrySet().stream()
-                .map(entry -> quote(entry.getKey()) + " = " + formatValue(entry.getValue()))
-                .collect(Collectors.joining(" AND "));
-        sql.append(" WHERE ").append(whereClause);
+        List<String> conditions = new ArrayList<>();
+        filters.forEach((column, value) -> {
+            if (value == null) {
+                conditions.add(quote(column) + " IS NULL");
+            } else {
+                conditions.add(quote(column) + " = ?");
+                parameters.add(value);
+            }
+        });
+        return conditions;
     }
 
-    private String formatValue(Object value) {
-        if (value instanceof Number || value instanceof Boolean) {
-            return value.toString();
+    private String buildFilterExpression(FilterCondition filter, List<Object> parameters, int depth) {
+        FilterOperator operator = requireOperator(filter, depth);
+
+        if (operator == FilterOperator.AND || operator == FilterOperator.OR) {
+            List<String> parts = new ArrayList<>();
+            for (FilterCondition child : requireConditions(filter)) {
+                parts.add(buildFilterExpression(child, parameters, depth + 1));
+            }
+            return "(" + String.join(" " + operator.name() + " ", parts) + ")";
+        }
+        if (operator == FilterOperator.NOT) {
+            return "NOT (" + buildFilterExpression(requireSingleCondition(filter), parameters, depth + 1) + ")";
+        }
+
+        List<Object> values = leafParameters(filter);
+        parameters.addAll(values);
+        String column = filterColumn(filter);
+
+        return switch (operator) {
+            case EQ -> column + " = ?";
+            case NE -> column + " <> ?";
+            case LT -> column + " < ?";
+            case LTE -> column + " <= ?";
+            case GT -> column + " > ?";
+            case GTE -> column + " >= ?";
+            case BETWEEN -> column + " BETWEEN ? AND ?";
+            case IN -> column + " IN (" + String.join(", ", Collections.nCopies(values.size(), "?")) + ")";
+            case IS_NULL -> column + " IS NULL";
+            case IS_NOT_NULL -> column + " IS NOT NULL";
+            case STARTS_WITH -> column + " LIKE ?";
+            default -> throw new IllegalStateException("Unexpected leaf operator " + operator);
+        };
+    }
+
+    private void collectFilterParameters(FilterCondition filter, List<Object> parameters, int depth) {
+        FilterOperator operator = requireOperator(filter, depth);
+
+        if (operator == FilterOperator.AND || operator == FilterOperator.OR) {
+            for (FilterCondition child : requireConditions(filter)) {
+                collectFilterParameters(child, parameters, depth + 1);
+            }
+        } else if (operator == FilterOperator.NOT) {
+            collectFilterParameters(requireSingleCondition(filter), parameters, depth + 1);
         } else {
-            return "'" + value.toString().replace("'", "''") + "'";
+            filterColumn(filter);
+            parameters.addAll(leafParameters(filter));
         }
     }
 
+    // Shared by the SQL renderer and the cached-statement path so the two cannot disagree.
+    private List<Object> leafParameters(FilterCondition filter) {
+        return switch (filter.getOperator()) {
+            case EQ, NE, LT, LTE, GT, GTE -> List.of(requireValue(filter));
+            case BETWEEN -> {
+                List<Object> bounds = filter.getValues();
+                if (bounds == null || bounds.size() != 2 || bounds.stream().anyMatch(Objects::isNull)) {
+                    throw new IllegalArgumentException("BETWEEN needs exactly two non-null values");
+                }
+                yield bounds;
+            }
+            case IN -> padInList(filter.getValues());
+            case IS_NULL, IS_NOT_NULL -> List.of();
+            case STARTS_WITH -> List.of(escapeLike(requireValue(filter).toString()) + "%");
+            default -> throw new IllegalStateException("Not a leaf operator: " + filter.getOperator());
+        };
+    }
+
+    // Repeating the last value keeps the result but caps distinct statement texts per column at ~log2(n).
+    private List<Object> padInList(List<Object> values) {
+        if (values == null || values.isEmpty()) {
+            throw new IllegalArgumentException("IN needs at least one value");
+        }
+        int padded = inListArity(values.size());
+        List<Object> result = new ArrayList<>(padded);
+        result.addAll(values);
+        while (result.size() < padded) {
+            result.add(values.get(values.size() - 1));
+        }
+        return result;
+    }
+
+    private int inListArity(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private FilterOperator requireOperator(FilterCondition filter, int depth) {
+        if (depth > MAX_FILTER_DEPTH) {
+            throw new IllegalArgumentException("Filter nesting exceeds " + MAX_FILTER_DEPTH + " levels");
+        }
+        if (filter.getOperator() == null) {
+            throw new IllegalArgumentException("Filter operator is required");
+        }
+        return filter.getOperator();
+    }
+
+    private String filterColumn(FilterCondition filter) {
+        if (filter.getColumn() == null || filter.getColumn().isBlank()) {
+            throw new IllegalArgumentException(filter.getOperator() + " filter needs a column");
+        }
+        return quote(filter.getColumn());
+    }
+
+    private Object requireValue(FilterCondition filter) {
+        if (filter.getValue() == null) {
+            throw new IllegalArgumentException(filter.getOperator()
+                    + " filter needs a non-null value; use IS_NULL to match NULLs");
+        }
+        return filter.getValue();
+    }
+
+    private List<FilterCondition> requireConditions(FilterCondition filter) {
+        if (filter.getConditions() == null || filter.getConditions().isEmpty()) {
+            throw new IllegalArgumentException(filter.getOperator() + " filter needs nested conditions");
+        }
+        return filter.getConditions();
+    }
+
+    private FilterCondition requireSingleCondition(FilterCondition filter) {
+        List<FilterCondition> children = requireConditions(filter);
+        if (children.size() != 1) {
+            throw new IllegalArgumentException(filter.getOperator() + " takes exactly one condition");
+        }
+        return children.get(0);
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private void appendWhereClause(StringBuilder sql, List<String> conditions) {
+        if (conditions.isEmpty()) return;
+
+        sql.append(" WHERE ").append(String.join(" AND ", conditions));
+    }
+
+    // A uniform direction compiles to a row comparison a btree can seek to; mixed directions expand to ORs.
+    private String buildKeysetCondition(List<OrderByRequest> orderBy, List<Object> lastSeen, List<Object> parameters) {
+        parameters.addAll(keysetParameters(orderBy, lastSeen));
+
+        if (isUniformOrder(orderBy)) {
+            String operator = orderBy.get(0).isDescending() ? " < " : " > ";
+            String keyColumns = orderBy.stream().map(o -> quote(o.getColumn())).collect(Collectors.joining(", "));
+            return "(" + keyColumns + ")" + operator + "(" + String.join(", ", Collections.nCopies(lastSeen.size(), "?")) + ")";
+        }
+
+        List<String> alternatives = new ArrayList<>();
+        for (int i = 0; i < orderBy.size(); i++) {
+            List<String> terms = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                terms.add(quote(orderBy.get(j).getColumn()) + " = ?");
+            }
+            OrderByRequest key = orderBy.get(i);
+            terms.add(quote(key.getColumn()) + (key.isDescending() ? " < ?" : " > ?"));
+            alternatives.add("(" + String.join(" AND ", terms) + ")");
+        }
+        return "(" + String.join(" OR ", alternatives) + ")";
+    }
+
+    private List<Object> keysetParameters(List<OrderByRequest> orderBy, List<Object> lastSeen) {
+        if (orderBy == null || orderBy.size() != lastSeen.size()) {
+            throw new IllegalArgumentException("Page token does not match the requested sort order");
+        }
+        if (isUniformOrder(orderBy)) {
+            return lastSeen;
+        }
+        // Expanded form: alternative i binds the first i key values for equality, then key i.
+        List<Object> parameters = new ArrayList<>();
+        for (int i = 0; i < lastSeen.size(); i++) {
+            parameters.addAll(lastSeen.subList(0, i + 1));
+        }
+        return parameters;
+    }
+
+    private boolean isUniformOrder(List<OrderByRequest> orderBy) {
+        return orderBy.stream().allMatch(o -> o.isDescending() == orderBy.get(0).isDescending());
+    }
+
+    private void appendOrderByClause(StringBuilder sql, List<OrderByRequest> orderBy) {
+        if (orderBy == null || orderBy.isEmpty()) return;
+
+        String orderClause = orderBy.stream()
+                .map(o -> quote(o.getColumn()) + (o.isDescending() ? " DESC" : " ASC"))
+                .collect(Collectors.joining(", "));
+        sql.append(" ORDER BY ").append(orderClause);
+    }
+
     private String quote(String name) {
         return "\"" + name.replace("\"", "\"\"") + "\"";
     }
 
     @Override
-    public String buildFlushFromTempToActualSql(TableDefinitionRequest def, int batchSize) {
+    public String buildFlushFromTempToActualSql(TableDefinitionRequest def, int batchSize, List<RollupDefinition> rollups,
+                                                CtidRange range) {
         String actualTable = quote(def.getSchemaName()) + "." + quote(def.getTableName());
         String tempTable = quote(def.getSchemaName()) + "." + quote("__tmp_write_" + def.getTableName());
 
@@ -189,13 +778,247 @@ public class PostgresSqlBuilder implements SqlBuilder {
                 .map(col -> "CAST(" + quote(col) + " AS " + resolveColumnType(col, def) + ")")
                 .collect(Collectors.joining(", "));
 
+        if (rollups == null || rollups.isEmpty()) {
+            return """
+            WITH %s,
+            inserted AS (
+                INSERT INTO %s (%s)
+                SELECT %s FROM moved
+            )
+            SELECT count(*) FROM moved;
+            """.formatted(buildClaimStagedRowsCte(tempTable, batchSize, insertColumns, range),
+                    actualTable, insertColumns, selectColumns);
+        }
+
+        // Every typed row is appended, so the same batch is folded into each rollup in the same statement.
+        String typedColumns = columnNames.stream()
+                .map(col -> "CAST(" + quote(col) + " AS " + resolveColumnType(col, def) + ") AS " + quote(col))
+                .collect(Collectors.joining(", "));
+
+        StringBuilder rollupCtes = new StringBuilder();
+        for (int i = 0; i < rollups.size(); i++) {
+            rollupCtes.append(",\n").append("""
+            rollup_%d AS (
+                %s
+            )""".formatted(i, buildRollupUpsertSql(rollups.get(i), "typed")));
+        }
+
+        return """
+        WITH %s,
+        typed AS (
+            SELECT %s FROM moved
+        )%s,
+        inserted AS (
+            INSERT INTO %s (%s)
+            SELECT %s FROM typed
+        )
+        SELECT count(*) FROM moved;
+        """.formatted(buildClaimStagedRowsCte(tempTable, batchSize, insertColumns, range),
+                typedColumns, rollupCtes, actualTable, insertColumns, insertColumns);
+    }
+
+    @Override
+    public String buildCreateRollupTableSql(TableDefinitionRequest def, RollupDefinition rollup) {
+        String rollupTable = quote(rollup.getSchemaName()) + "." + quote(RollupLayout.tableName(rollup));
+
+        List<String> columnDef = new ArrayList<>();
+        columnDef.add(quote(RollupLayout.GROUP_KEY) + " TEXT PRIMARY KEY");
+        rollup.getGroupBy().forEach(col -> columnDef.add(quote(col) + " " + resolveColumnType(col, def)));
+        columnDef.add(quote(RollupLayout.ROW_COUNT) + " BIGINT NOT NULL");
+        for (RollupLayout.Measure measure : RollupLayout.measures(rollup)) {
+            String type = switch (measure.function()) {
+                case "COUNT" -> "BIGINT NOT NULL";
+                case "SUM" -> "NUMERIC";
+                default -> resolveColumnType(measure.column(), def);
+            };
+            columnDef.add(quote(measure.columnName()) + " " + type);
+        }
+
+        return "CREATE TABLE IF NOT EXISTS " + rollupTable + " (\n" +
+                String.join(",\n", columnDef) + "\n" +
+                ");";
+    }
+
+    @Override
+    public List<String> buildRebuildRollupSql(RollupDefinition rollup) {
+        String rollupTable = quote(rollup.getSchemaName()) + "." + quote(RollupLayout.tableName(rollup));
+        String actualTable = quote(rollup.getSchemaName()) + "." + quote(rollup.getTableName());
+        return List.of(
+                "TRUNCATE TABLE " + rollupTable + ";",
+                buildRollupUpsertSql(rollup, actualTable) + ";");
+    }
+
+    @Override
+    public String buildDropRollupTableSql(RollupDefinition rollup) {
+        return "DROP TABLE IF EXISTS " + quote(rollup.getSchemaName()) + "." + quote(RollupLayout.tableName(rollup)) + ";";
+    }
+
+    @Override
+    public String buildLockTableSql(String schema, String table, String lockMode) {
+        return "LOCK TABLE " + quote(schema) + "." + quote(table) + " IN " + lockMode + " MODE;";
+    }
+
+    // Key order keeps concurrent flushes from deadlocking; the text group key also folds NULL groups together.
+    private String buildRollupUpsertSql(RollupDefinition rollup, String source) {
+        String rollupTable = quote(rollup.getSchemaName()) + "." + quote(RollupLayout.tableName(rollup));
+        String groupColumns = rollup.getGroupBy().stream().map(this::quote).collect(Collectors.joining(", "));
+        Set<RollupLayout.Measure> measures = RollupLayout.measures(rollup);
+
+        List<String> targetColumns = new ArrayList<>();
+        targetColumns.add(quote(RollupLayout.GROUP_KEY));
+        targetColumns.add(groupColumns);
+        targetColumns.add(quote(RollupLayout.ROW_COUNT));
+        measures.forEach(m -> targetColumns.add(quote(m.columnName())));
+
+        List<String> aggregates = new ArrayList<>();
+        aggregates.add("CAST(ROW(" + groupColumns + ") AS TEXT)");
+        aggregates.add(groupColumns);
+        aggregates.add("COUNT(*)");
+        measures.forEach(m -> aggregates.add(m.function() + "(" + quote(m.column()) + ")"));
+
+        List<String> updates = new ArrayList<>();
+        updates.add(mergeState("COUNT", quote(RollupLayout.ROW_COUNT)));
+        measures.forEach(m -> updates.add(mergeState(m.function(), quote(m.columnName()))));
+
+        return "INSERT INTO " + rollupTable + " AS r (" + String.join(", ", targetColumns) + ") " +
+                "SELECT " + String.join(", ", aggregates) + " FROM " + source + " GROUP BY " + groupColumns + " ORDER BY 1 " +
+                "ON CONFLICT (" + quote(RollupLayout.GROUP_KEY) + ") DO UPDATE SET " + String.join(", ", updates);
+    }
+
+    private String mergeState(String function, String column) {
+        String stored = "r." + column;
+        String incoming = "EXCLUDED." + column;
+        return column + " = " + switch (function) {
+            case "COUNT" -> stored + " + " + incoming;
+            case "SUM" -> "COALESCE(" + stored + " + " + incoming + ", " + stored + ", " + incoming + ")";
+            case "MIN" -> "LEAST(" + stored + ", " + incoming + ")";
+            case "MAX" -> "GREATEST(" + stored + ", " + incoming + ")";
+            default -> throw new IllegalStateException("Unexpected rollup state " + function);
+        };
+    }
+
+    // JDBC metadata reports serial columns by their pseudo-type, which is not a castable or storable type.
+    private String storageType(String type) {
+        return switch (type.toLowerCase()) {
+            case "serial" -> "INTEGER";
+            case "bigserial" -> "BIGINT";
+            case "smallserial" -> "SMALLINT";
+            default -> type;
+        };
+    }
+
+    @Override
+    public String buildMergeFromTempToActualSql(TableDefinitionRequest def, int batchSize, CtidRange range) {
+        String actualTable = quote(def.getSchemaName()) + "." + quote(def.getTableName());
+        String tempTable = quote(def.getSchemaName()) + "." + quote("__tmp_write_" + def.getTableName());
+
+        List<String> columnNames = def.getColumns().stream().map(ColumnDefinition::getName).toList();
+        List<String> keyColumns = def.getColumns().stream()
+                .filter(ColumnDefinition::isPrimaryKey)
+                .map(ColumnDefinition::getName)
+                .map(this::quote)
+                .toList();
+        if (keyColumns.isEmpty()) {
+            throw new IllegalArgumentException("Merge flush requires a primary key on "
+                    + def.getSchemaName() + "." + def.getTableName());
+        }
+        if (keyColumns.contains(quote(LAST_UPDATE_DATE))) {
+            // Tables range-partitioned on lastUpdateDate carry it in their key, so versions of a row never conflict.
+            throw new IllegalArgumentException("Merge flush cannot key on " + LAST_UPDATE_DATE + " in "
+                    + def.getSchemaName() + "." + def.getTableName());
+        }
+        boolean hasLastUpdate = columnNames.contains(LAST_UPDATE_DATE);
+        boolean hasDeleted = columnNames.contains(IS_DELETED);
+
+        String insertColumns = columnNames.stream().map(this::quote).collect(Collectors.joining(", "));
+        String keyClause = String.join(", ", keyColumns);
+
+        String typedColumns = columnNames.stream()
+                .map(col -> {
+                    String cast = "CAST(" + quote(col) + " AS " + resolveColumnType(col, def) + ")";
+                    if (LAST_UPDATE_DATE.equals(col)) cast = "COALESCE(" + cast + ", CURRENT_TIMESTAMP)";
+                    if (IS_DELETED.equals(col)) cast = "COALESCE(" + cast + ", FALSE)";
+                    return cast + " AS " + quote(col);
+                })
+                .collect(Collectors.joining(", "));
+
+        // Newest staged version per key wins.
+        String latestOrder = hasLastUpdate
+                ? keyClause + ", " + quote(LAST_UPDATE_DATE) + " DESC"
+                : keyClause;
+
+        // A staged delete for a key we have never stored is dropped rather than inserted as a tombstone.
+        String insertFilter = hasDeleted
+                ? " WHERE NOT latest." + quote(IS_DELETED) + " OR EXISTS (SELECT 1 FROM " + actualTable + " existing WHERE "
+                    + keyColumns.stream().map(k -> "existing." + k + " = latest." + k).collect(Collectors.joining(" AND "))
+                    + ")"
+                : "";
+
+        // Soft delete: a staged delete only flips isDeleted and lastUpdateDate, the stored values survive.
+        String updateSet = columnNames.stream()
+                .map(this::quote)
+                .filter(col -> !keyColumns.contains(col))
+                .map(col -> {
+                    if (!hasDeleted || col.equals(quote(IS_DELETED)) || col.equals(quote(LAST_UPDATE_DATE))) {
+                        return col + " = EXCLUDED." + col;
+                    }
+                    return col + " = CASE WHEN EXCLUDED." + quote(IS_DELETED) + " THEN target." + col
+                            + " ELSE EXCLUDED." + col + " END";
+                })
+                .collect(Collectors.joining(", "));
+
+        // Never let an older staged version overwrite a newer stored one.
+        String staleGuard = hasLastUpdate
+                ? " WHERE EXCLUDED." + quote(LAST_UPDATE_DATE) + " >= target." + quote(LAST_UPDATE_DATE)
+                : "";
+
+        String conflictAction = updateSet.isEmpty()
+                ? "DO NOTHING"
+                : "DO UPDATE SET " + updateSet + staleGuard;
+
         return """
-        INSERT INTO %s (%s)
-        SELECT %s FROM %s
-        LIMIT %d;
-        """.formatted(actualTable, insertColumns, selectColumns, tempTable, batchSize);
+        WITH %s,
+        typed AS (
+            SELECT %s FROM moved
+        ),
+        latest AS (
+            SELECT DISTINCT ON (%s) * FROM typed
+            ORDER BY %s
+        ),
+        merged AS (
+            INSERT INTO %s AS target (%s)
+            SELECT %s FROM latest%s
+            ON CONFLICT (%s) %s
+        )
+        SELECT count(*) FROM moved;
+        """.formatted(buildClaimStagedRowsCte(tempTable, batchSize, insertColumns, range),
+                typedColumns, keyClause, latestOrder,
+                actualTable, insertColumns, insertColumns, insertFilter,
+                keyClause, conflictAction);
     }
 
+    // Claimed and deleted in the insert statement; SKIP LOCKED keeps concurrent flushers on disjoint batches.
+    private String buildClaimStagedRowsCte(String tempTable, int batchSize, String columns, CtidRange range) {
+        String rangeFilter = "";
+        if (range != null) {
+            rangeFilter = " WHERE ctid >= '(" + range.startBlock() + ",0)'::tid";
+            if (range.endBlock() != null) {
+                rangeFilter += " AND ctid < '(" + range.endBlock() + ",0)'::tid";
+            }
+        }
+        return """
+        moved AS (
+            DELETE FROM %s
+            WHERE ctid = ANY (ARRAY(SELECT ctid FROM %s%s LIMIT %d FOR UPDATE SKIP LOCKED))
+            RETURNING %s
+        )""".formatted(tempTable, tempTable, rangeFilter, batchSize, columns);
+    }
+
+    @Override
+    public String buildRelationBlockCountSql(String schema, String table) {
+        String relation = (quote(schema) + "." + quote(table)).replace("'", "''");
+        return "SELECT pg_relation_size('" + relation + "'::regclass) / current_setting('block_size')::bigint;";
+    }
 
     private String resolveColumnType(String columnName, TableDefinitionRequest def) {
         if (LAST_UPDATE_DATE.equals(columnName)) return "TIMESTAMP";
@@ -204,6 +1027,7 @@ public class PostgresSqlBuilder implements SqlBuilder {
         return def.getColumns().stream()
                 .filter(col -> col.getName().equals(columnName))
                 .map(ColumnDefinition::getType)
+                .map(this::storageType)
                 .findFirst()
                 .orElse("TEXT");
     }
@@ -236,9 +1060,44 @@ public class PostgresSqlBuilder implements SqlBuilder {
     }
 
     @Override
-    public String buildTableExistsSql(String schema, String tableName) {
-        return "SELECT EXISTS (SELECT 1 FROM information_schema.tables WHERE table_schema = '" +
-                schema + "' AND table_name = '" + tableName + "');";
+    public BatchSql buildParameterizedBulkInsertSql(String schema, String table, List<Map<String, String>> rows, boolean tempTable) {
+        if (rows == null || rows.isEmpty()) {
+            throw new IllegalArgumentException("Insert rows cannot be empty");
+        }
+
+        String tableName = quote(schema) + "." + quote((tempTable ? "__tmp_write_" : "") + table);
+        List<String> allColumns = new ArrayList<>(rows.get(0).keySet());
+
+        String columnClause = allColumns.stream()
+                .map(this::quote)
+                .collect(Collectors.joining(", "));
+        String placeholders = allColumns.stream()
+                .map(col -> "?")
+                .collect(Collectors.joining(", ", "(", ")"));
+
+        List<Object[]> batchArgs = rows.stream()
+                .map(row -> allColumns.stream()
+                        .map(col -> (Object) row.getOrDefault(col, ""))
+                        .toArray())
+                .toList();
+
+        String sql = String.format("INSERT INTO %s (%s) VALUES %s", tableName, columnClause, placeholders);
+        return new BatchSql(sql, batchArgs);
+    }
+
+    @Override
+    public String buildCopyFromStdinSql(String schema, String table, List<String> columns, boolean tempTable, IngestMode mode) {
+        if (columns == null || columns.isEmpty()) {
+            throw new IllegalArgumentException("Copy columns cannot be empty");
+        }
+
+        String tableName = quote(schema) + "." + quote((tempTable ? "__tmp_write_" : "") + table);
+        String columnClause = columns.stream()
+                .map(this::quote)
+                .collect(Collectors.joining(", "));
+        String format = mode == IngestMode.COPY_BINARY ? "binary" : "text";
+
+        return String.format("COPY %s (%s) FROM STDIN WITH (FORMAT %s)", tableName, columnClause, format);
     }
 
 }
@@ -0,0 +1,60 @@
+package com.builder.database.builder;
+
+import com.builder.database.model.AggregationRequest;
+import com.builder.database.model.RollupDefinition;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Physical layout of a rollup summary table. Every requested aggregation is stored as the
+ * mergeable states it can be recomputed from (AVG as SUM and COUNT), so summary rows can be
+ * combined both when a flushed batch is folded in and when a select re-aggregates them.
+ */
+public final class RollupLayout {
+
+    public static final String TABLE_PREFIX = "__rollup_";
+    public static final String GROUP_KEY = "__group_key";
+    public static final String ROW_COUNT = "__row_count";
+
+    private RollupLayout() {
+    }
+
+    public static String tableName(RollupDefinition rollup) {
+        return TABLE_PREFIX + rollup.getTableName() + "_" + rollup.getName();
+    }
+
+    public static Set<Measure> measures(RollupDefinition rollup) {
+        Set<Measure> measures = new LinkedHashSet<>();
+        for (AggregationRequest agg : rollup.getAggregations()) {
+            List<Measure> needed = measuresFor(agg);
+            if (needed == null) {
+                throw new IllegalArgumentException("Rollups cannot maintain " + agg.getFunction() + "; use COUNT, SUM, AVG, MIN or MAX");
+            }
+            measures.addAll(needed);
+        }
+        return measures;
+    }
+
+    public static List<Measure> measuresFor(AggregationRequest agg) {
+        String function = agg.getFunction() == null ? "" : agg.getFunction().toUpperCase();
+        String column = agg.getColumn();
+        if (column == null || column.isBlank()) {
+            return null;
+        }
+        return switch (function) {
+            case "COUNT" -> column.equals("*") ? List.of() : List.of(new Measure("COUNT", column));
+            case "SUM", "MIN", "MAX" -> column.equals("*") ? null : List.of(new Measure(function, column));
+            case "AVG" -> column.equals("*") ? null : List.of(new Measure("SUM", column), new Measure("COUNT", column));
+            default -> null;
+        };
+    }
+
+    public record Measure(String function, String column) {
+
+        public String columnName() {
+            return "__" + function.toLowerCase() + "_" + column;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.builder.database.builder;
+
+import com.builder.database.model.FilterOperator;
+
+import java.util.List;
+
+/**
+ * Everything that determines the text of a generated select, with the bind values left out.
+ * Two requests with equal shapes compile to the same parameterized SQL.
+ */
+public record SelectShape(String schemaName,
+                          String tableName,
+                          List<String> columns,
+                          List<FilterShape> filters,
+                          FilterShape where,
+                          List<AggregationShape> aggregations,
+                          List<OrderShape> orderBy,
+                          int keysetSize,
+                          boolean limited) {
+
+    public record FilterShape(FilterOperator operator, String column, int arity, List<FilterShape> conditions) {
+    }
+
+    public record AggregationShape(String function, String column, String alias, Double parameter) {
+    }
+
+    public record OrderShape(String column, boolean descending) {
+    }
+}
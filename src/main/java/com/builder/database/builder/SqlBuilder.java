@@ -2,8 +2,13 @@ package com.builder.database.builder;
 
 import com.builder.database.model.AggregationRequest;
 import com.builder.database.model.IndexDefinition;
+import com.builder.database.model.IngestMode;
+import com.builder.database.model.PartitionInterval;
+import com.builder.database.model.RollupDefinition;
+import com.builder.database.model.SelectQueryRequest;
 import com.builder.database.model.TableDefinitionRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -13,24 +18,66 @@ public interface SqlBuilder {
 
     String buildCreateTempWriteTableSql(TableDefinitionRequest request);
 
+    List<String> buildCreatePartitionsSql(TableDefinitionRequest request, LocalDate today);
+
+    List<String> buildCreateTableStatements(TableDefinitionRequest request, LocalDate today);
+
+    String buildCreateRangePartitionSql(String schema, String table, PartitionInterval interval, LocalDate periodStart);
+
+    // CONCURRENTLY cannot run in a transaction block or while the table has a default partition.
+    String buildDetachPartitionSql(String schema, String table, String partition, boolean concurrently);
+
+    String buildFinalizeDetachPartitionSql(String schema, String table, String partition);
+
+    List<String> buildSplitDefaultPartitionSql(String schema, String table, String column, PartitionInterval interval, LocalDate periodStart);
+
+    String buildDropTableSql(String schema, String table);
+
+    String buildIndexName(String tableName, IndexDefinition index);
+
     String buildCreateIndexSql(String schemaName, String tableName, IndexDefinition index);
 
+    // Cannot run inside a transaction block.
+    String buildCreateIndexConcurrentlySql(String schemaName, String tableName, IndexDefinition index);
+
+    String buildDropIndexConcurrentlySql(String schemaName, String indexName);
+
     List<String> buildAllCreateIndexSql(String schemaName, String tableName, List<IndexDefinition> indexes);
 
-    String buildSelectQuerySql(
-            String schemaName,
-            String tableName,
-            List<String> columns,
-            Map<String, Object> filters,
-            List<AggregationRequest> aggregations
-    );
+    ParameterizedSql buildSelectQuerySql(SelectQueryRequest request);
+
+    ParameterizedSql buildRollupSelectQuerySql(SelectQueryRequest request, RollupDefinition rollup, TableDefinitionRequest definition);
 
-    String buildFlushFromTempToActualSql(TableDefinitionRequest definition, int batchSize);
+    ParameterizedSql buildHllRegisterSql(SelectQueryRequest request, AggregationRequest aggregation, int precision);
+
+    ParameterizedSql buildSketchValueSql(SelectQueryRequest request, AggregationRequest aggregation);
+
+    SelectShape buildSelectShape(SelectQueryRequest request);
+
+    List<Object> collectSelectParameters(SelectQueryRequest request);
+
+    // Counts the staged rows claimed, whether or not each reached the actual table.
+    String buildFlushFromTempToActualSql(TableDefinitionRequest definition, int batchSize, List<RollupDefinition> rollups, CtidRange range);
+
+    // Counts the staged rows claimed, including versions collapsed or skipped by the merge.
+    String buildMergeFromTempToActualSql(TableDefinitionRequest definition, int batchSize, CtidRange range);
+
+    String buildRelationBlockCountSql(String schema, String table);
 
     String buildInsertSql(String schema, String table, Map<String, String> row, boolean tempTable);
 
     String buildBulkInsertSql(String schema, String table, List<Map<String, String>> rows, boolean tempTable);
 
-    String buildTableExistsSql(String schema, String tableName);
+    BatchSql buildParameterizedBulkInsertSql(String schema, String table, List<Map<String, String>> rows, boolean tempTable);
+
+    String buildCreateRollupTableSql(TableDefinitionRequest definition, RollupDefinition rollup);
+
+    List<String> buildRebuildRollupSql(RollupDefinition rollup);
+
+    String buildDropRollupTableSql(RollupDefinition rollup);
+
+    String buildLockTableSql(String schema, String table, String lockMode);
+
+    String buildCopyFromStdinSql(String schema, String table, List<String> columns, boolean tempTable, IngestMode mode);
 
 }
@@ -0,0 +1,27 @@
+package com.builder.database.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "builder.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    private Limit ingest = new Limit();
+    private Limit flush = new Limit();
+    private Limit query = new Limit();
+    private Limit metadata = new Limit();
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private int maxConcurrent = 0;                           // 0 derives the limit from the workload's pool size
+        private Duration acquireTimeout = Duration.ofSeconds(5); // queueing longer than this answers 429
+    }
+}
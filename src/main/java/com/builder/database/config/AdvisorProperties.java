@@ -0,0 +1,21 @@
+package com.builder.database.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "builder.advisor")
+public class AdvisorProperties {
+    private boolean enabled = true;              // record select shapes and latencies for the index advisor
+    private int maxTables = 500;
+    private int maxShapesPerTable = 100;         // beyond this, the shape with the least time per second of age is evicted
+    private int minCalls = 5;                    // shapes seen fewer times are not analysed
+    private Duration slowThreshold = Duration.ofMillis(50); // p95 latency a shape needs to be analysed
+    private int maxShapesAnalysed = 20;          // hottest slow shapes EXPLAINed per recommendation request
+}
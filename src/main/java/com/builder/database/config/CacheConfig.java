@@ -0,0 +1,17 @@
+package com.builder.database.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches are Caffeine-backed and declared in application.yml (spring.cache.*),
+ * which also lets Actuator publish their hit/miss/eviction statistics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String TABLE_DEFINITIONS = "tableDefinitions";
+    public static final String SELECT_STATEMENTS = "selectStatements";
+    public static final String TABLE_ROUTING = "tableRouting";
+}
@@ -1,9 +1,8 @@
 package com.builder.database.config;
 
-import com.builder.database.entity.TableMetadata;
-import com.builder.database.entity.TempTableMetadata;
-import com.builder.database.repository.TableMetadataRepository;
-import com.builder.database.repository.TempTableMetadataRepository;
+import com.builder.database.builder.RollupLayout;
+import com.builder.database.metrics.MetadataMetrics;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -15,122 +14,145 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerErrorException;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Reconciles table_metadata / temp_table_metadata with pg_catalog at startup. The catalog is
+ * read in one query and diffed against the stored rows; only new, changed and vanished tables
+ * are written, as batched upserts and deletes in one transaction, so other instances reading
+ * the registry never see it empty or half-built.
+ */
 @RequiredArgsConstructor
 @Component
 @Slf4j
 public class DatabaseMetadataInitializer implements ApplicationListener<ContextRefreshedEvent> {
 
-    private final TableMetadataRepository tableMetadataRepository;
-    private final TempTableMetadataRepository tempTableMetadataRepository;
     private final JdbcTemplate jdbcTemplate;
     private final ObjectMapper objectMapper;
+    private final MetadataMetrics metadataMetrics;
 
     private static final String TEMP_PREFIX = "__tmp_write_";
 
+    // Same relations information_schema.columns lists (tables, views, foreign and partitioned
+    // tables); child partitions are reached through their parent and are not tables of their own.
+    private static final String CATALOG_TABLES_SQL = """
+            SELECT n.nspname AS table_schema, c.relname AS table_name,
+                   array_agg(a.attname::text ORDER BY a.attnum) AS columns
+            FROM pg_class c
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum > 0 AND NOT a.attisdropped
+            WHERE c.relkind IN ('r', 'p', 'v', 'f') AND NOT c.relispartition
+              AND n.nspname NOT IN ('information_schema', 'pg_catalog', 'flyway')
+              AND n.nspname NOT LIKE 'pg\\_%'
+            GROUP BY n.nspname, c.relname
+            """;
+
+    private static final String UPSERT_TABLE_SQL = """
+            INSERT INTO table_metadata (schema_name, table_name, has_temp_table, columns_data)
+            VALUES (?, ?, ?, CAST(? AS jsonb))
+            ON CONFLICT (schema_name, table_name) DO UPDATE
+            SET has_temp_table = EXCLUDED.has_temp_table, columns_data = EXCLUDED.columns_data, updated_at = CURRENT_TIMESTAMP
+            """;
+
+    private static final String UPSERT_TEMP_TABLE_SQL = """
+            INSERT INTO temp_table_metadata (schema_name, temp_table_name, original_table_name, columns_data)
+            VALUES (?, ?, ?, CAST(? AS jsonb))
+            ON CONFLICT (schema_name, temp_table_name) DO UPDATE
+            SET original_table_name = EXCLUDED.original_table_name, columns_data = EXCLUDED.columns_data, updated_at = CURRENT_TIMESTAMP
+            """;
+
     @Override
     @Transactional
     public void onApplicationEvent(ContextRefreshedEvent event) {
+        long start = System.nanoTime();
         try {
-            jdbcTemplate.execute("TRUNCATE TABLE table_metadata, temp_table_metadata RESTART IDENTITY CASCADE");
-
-            Map<String, List<String>> allColumns = fetchColumnsGroupedByTable();
-            Set<String> tempTables = fetchTempTables();
-            if(allColumns == null || allColumns.isEmpty()) {
-                return;
-            }
-            populateTableMetadata(allColumns, tempTables);
-            populateTempTableMetadata(allColumns);
+            int changes = reconcile();
+            long elapsedNanos = System.nanoTime() - start;
+            metadataMetrics.recordBootstrap(elapsedNanos, changes);
+            log.info("Reconciled metadata registry in {} ms ({} rows changed)", elapsedNanos / 1_000_000, changes);
         } catch (Exception e) {
             throw new ServerErrorException("Failed to initialize metadata tables", e);
         }
     }
 
-    private Set<String> fetchTempTables() {
-        String sql = "SELECT table_schema, table_name FROM information_schema.tables " +
-                "WHERE table_name LIKE '" + TEMP_PREFIX + "%'";
-        return new HashSet<>(jdbcTemplate.query(sql, (rs, rowNum) ->
-                rs.getString("table_schema") + "." + rs.getString("table_name")
-        ));
+    @Transactional
+    public int reconcile() {
+        Map<String, List<String>> allColumns = fetchCatalogColumns();
+
+        Map<String, Object[]> tables = new HashMap<>();
+        Map<String, Object[]> tempTables = new HashMap<>();
+        allColumns.forEach((key, columns) -> {
+            String[] parts = key.split("\\.", 2);
+            String schema = parts[0];
+            String table = parts[1];
+            if (table.startsWith(TEMP_PREFIX)) {
+                tempTables.put(key, new Object[]{schema, table, table.substring(TEMP_PREFIX.length()), columns});
+            } else if (!table.startsWith(RollupLayout.TABLE_PREFIX)) {
+                boolean hasTempTable = allColumns.containsKey(schema + "." + TEMP_PREFIX + table);
+                tables.put(key, new Object[]{schema, table, hasTempTable, columns});
+            }
+        });
+
+        return reconcile("table_metadata", "table_name", "has_temp_table", UPSERT_TABLE_SQL, tables)
+                + reconcile("temp_table_metadata", "temp_table_name", "original_table_name", UPSERT_TEMP_TABLE_SQL, tempTables);
     }
 
-    private void populateTableMetadata(Map<String, List<String>> allColumns, Set<String> tempTables) {
-        List<TableMetadata> tableMetadataList = allColumns.entrySet().stream()
-                .filter(e -> !e.getKey().contains(TEMP_PREFIX))
-                .map(entry -> {
-                    String[] parts = entry.getKey().split("\\.");
-                    String schema = parts[0];
-                    String table = parts[1];
-                    String tempKey = schema + "." + TEMP_PREFIX + table;
-
-                    return TableMetadata.builder()
-                            .schemaName(schema)
-                            .tableName(table)
-                            .hasTempTable(tempTables.contains(tempKey))
-                            .columnsJson(writeJson(entry.getValue()))
-                            .build();
-                })
+    private int reconcile(String registry, String nameColumn, String attributeColumn,
+                          String upsertSql, Map<String, Object[]> desired) {
+        Map<String, Object[]> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT id, schema_name, " + nameColumn + ", " + attributeColumn + ", columns_data::text AS columns_data FROM " + registry,
+                rs -> {
+                    stored.put(rs.getString("schema_name") + "." + rs.getString(nameColumn), new Object[]{
+                            rs.getLong("id"), rs.getObject(attributeColumn), readJson(rs.getString("columns_data"))
+                    });
+                });
+
+        List<Object[]> upserts = new ArrayList<>();
+        desired.forEach((key, row) -> {
+            Object[] current = stored.get(key);
+            if (current == null || !Objects.equals(current[1], row[2]) || !Objects.equals(current[2], row[3])) {
+                upserts.add(new Object[]{row[0], row[1], row[2], writeJson(row[3])});
+            }
+        });
+        List<Object[]> deletes = stored.entrySet().stream()
+                .filter(entry -> !desired.containsKey(entry.getKey()))
+                .map(entry -> new Object[]{entry.getValue()[0]})
                 .toList();
 
-        tableMetadataRepository.saveAll(tableMetadataList);
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(upsertSql, upserts);
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM " + registry + " WHERE id = ?", deletes);
+        }
+        return upserts.size() + deletes.size();
     }
 
-    private void populateTempTableMetadata(Map<String, List<String>> allColumns) {
-        List<TempTableMetadata> tempTableMetadataList = allColumns.entrySet().stream()
-                .filter(e -> e.getKey().contains(TEMP_PREFIX))
-                .map(entry -> {
-                    String[] parts = entry.getKey().split("\\.");
-                    String schema = parts[0];
-                    String tempTable = parts[1];
-                    String originalTable = tempTable.replaceFirst(TEMP_PREFIX, "");
-
-                    return TempTableMetadata.builder()
-                            .schemaName(schema)
-                            .tempTableName(tempTable)
-                            .originalTableName(originalTable)
-                            .columnsJson(writeJson(entry.getValue()))
-                            .build();
-                })
-                .toList();
-
-        tempTableMetadataRepository.saveAll(tempTableMetadataList);
+    private Map<String, List<String>> fetchCatalogColumns() {
+        Map<String, List<String>> columns = new HashMap<>();
+        jdbcTemplate.query(CATALOG_TABLES_SQL, rs -> {
+            String[] names = (String[]) rs.getArray("columns").getArray();
+            columns.put(rs.getString("table_schema") + "." + rs.getString("table_name"), List.of(names));
+        });
+        return columns;
     }
 
-    private String writeJson(List<String> columnNames) {
+    private List<String> readJson(String columnsJson) {
+        if (columnsJson == null) {
+            return null;
+        }
         try {
-            return objectMapper.writeValueAsString(columnNames);
+            return objectMapper.readValue(columnsJson, new TypeReference<List<String>>() {});
         } catch (Exception e) {
-            throw new ServerErrorException("Failed to write JSON for columns", e);
+            // Unreadable rows compare unequal and are rewritten.
+            return null;
         }
     }
 
-    private Map<String, List<String>> fetchColumnsGroupedByTable() {
-        String sql = """
-            SELECT table_schema, table_name, column_name 
-            FROM information_schema.columns 
-            WHERE table_schema NOT IN ('information_schema', 'pg_catalog', 'flyway') 
-            AND table_schema NOT LIKE 'pg_%'
-            ORDER BY table_schema, table_name, ordinal_position
-            """;
-
+    private String writeJson(Object columnNames) {
         try {
-            return jdbcTemplate.query(sql, (rs, rowNum) -> new Object[]{
-                    rs.getString("table_schema"),
-                    rs.getString("table_name"),
-                    rs.getString("column_name")
-            }).stream().collect(
-                    Collectors.groupingBy(
-                            row -> (row)[0] + "." + (row)[1],
-                            Collectors.mapping(
-                                    row -> (String) (row)[2],
-                                    Collectors.toList()
-                            )
-                    )
-            );
+            return objectMapper.writeValueAsString(columnNames);
         } catch (Exception e) {
-            log.error("Failed to fetch columns from database", e);
-            return new HashMap<>();
+            throw new ServerErrorException("Failed to write JSON for columns", e);
         }
     }
 }
@@ -1,14 +1,33 @@
 package com.builder.database.config;
 
+import com.builder.database.model.FlushMode;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Getter
 @Setter
 @Configuration
 @ConfigurationProperties(prefix = "builder.flush")
 public class FlushProperties {
     private int batchSize = 2000;
+    private FlushMode mode = FlushMode.APPEND;
+    private int parallelism = 1;         // concurrent ctid ranges per flush; 1 keeps the single-batch flush
+    private long minRangeBlocks = 128;   // smallest slice (8kB heap blocks) worth its own connection
+    private Scheduler scheduler = new Scheduler();
+
+    @Getter
+    @Setter
+    public static class Scheduler {
+        private boolean enabled = false;
+        private int workerThreads = 4;
+        private Duration pollInterval = Duration.ofSeconds(1);
+        private int maxConcurrentPerTable = 1;
+        private int maxBatchesPerRun = 50; // fairness cap, in batch-size rows, before a table yields its worker
+        private Duration idleBackoffInitial = Duration.ofSeconds(1);
+        private Duration idleBackoffMax = Duration.ofSeconds(60);
+    }
 }
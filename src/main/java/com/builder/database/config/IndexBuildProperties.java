@@ -0,0 +1,15 @@
+package com.builder.database.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "builder.index-builds")
+public class IndexBuildProperties {
+    private int threads = 2;                     // concurrent online builds, each holding a metadata connection
+    private int retainedJobs = 100;              // finished jobs kept for the status endpoint
+}
@@ -0,0 +1,49 @@
+package com.builder.database.config;
+
+import com.builder.database.model.IngestMode;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "builder.ingest")
+public class IngestProperties {
+    private IngestMode mode = IngestMode.PREPARED;
+    private int copyBufferSize = 65536;
+    private String deadLetterDirectory = "spool/dead-letter"; // async appends that could not be committed
+    private Async async = new Async();
+    private Spool spool = new Spool();
+
+    @Getter
+    @Setter
+    public static class Async {
+        private int maxBufferedRowsPerTable = 100_000;    // appends beyond this answer 429
+        private long maxBufferedRows = 1_000_000;         // across all tables
+        private int batchRows = 10_000;                   // size threshold of one group commit
+        private Duration maxDelay = Duration.ofMillis(200); // time threshold: oldest buffered row waits at most this long
+        private Duration pollInterval = Duration.ofMillis(50);
+        private Duration retryInterval = Duration.ofSeconds(1); // after a failed commit the batch is retried
+        private int maxAttempts = 30;                     // then the batch is dead-lettered
+        private int writerThreads = 2;
+        private Duration idleTimeout = Duration.ofMinutes(5); // an empty buffer unused this long is dropped, with its gauge
+    }
+
+    @Getter
+    @Setter
+    public static class Spool {
+        private boolean enabled = false;                  // /insert/async acknowledges after an fsync to local disk
+        private String directory = "spool";
+        private long segmentBytes = 64L * 1024 * 1024;
+        private Duration syncInterval = Duration.ofMillis(2); // extra wait so more appends share an fsync
+        private long maxPendingBytes = 1024L * 1024 * 1024;   // unreplayed bytes before appends answer 429
+        private long drainBatchBytes = 8L * 1024 * 1024;      // payload replayed per transaction
+        private Duration drainInterval = Duration.ofMillis(200);
+        private Duration retryInterval = Duration.ofSeconds(1);
+        private int maxAttempts = 600;                    // per batch, before it is dead-lettered and skipped
+    }
+}
@@ -0,0 +1,39 @@
+package com.builder.database.config;
+
+import com.builder.database.entity.TableMetadata;
+import com.builder.database.repository.TableMetadataRepository;
+import com.builder.database.service.TableMetadataService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "builder.cache", name = "warm-up", havingValue = "true", matchIfMissing = true)
+public class MetadataCacheWarmer implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final TableMetadataRepository tableMetadataRepository;
+    private final TableMetadataService tableMetadataService;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        List<TableMetadata> tables = tableMetadataRepository.findAll();
+        int warmed = 0;
+        for (TableMetadata table : tables) {
+            try {
+                // Flushes look definitions up without indexes, so that is the entry worth preloading.
+                tableMetadataService.getTableDefinition(table.getSchemaName(), table.getTableName(), false);
+                warmed++;
+            } catch (Exception e) {
+                log.warn("Skipping cache warm-up for {}.{}: {}", table.getSchemaName(), table.getTableName(), e.getMessage());
+            }
+        }
+        log.info("Warmed table definition cache with {} of {} tables", warmed, tables.size());
+    }
+}
@@ -0,0 +1,18 @@
+package com.builder.database.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "builder.partition")
+public class PartitionProperties {
+    private int defaultPremake = 3;              // future RANGE periods created ahead when a spec omits premake
+    private boolean maintenanceEnabled = true;
+    private Duration maintenanceInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,32 @@
+package com.builder.database.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "builder.pools")
+public class PoolProperties {
+    private boolean enabled = true; // false routes every workload to the primary pool
+    private Pool ingest = new Pool();
+    private Pool flush = new Pool();
+    private Pool query = new Pool();
+
+    @Getter
+    @Setter
+    public static class Pool {
+        private int maximumPoolSize = 10;
+        private int minimumIdle = 2;
+        private Duration connectionTimeout = Duration.ofSeconds(30); // wait for a free connection before failing
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        private Duration maxLifetime = Duration.ofMinutes(30);
+        private Map<String, String> settings = new LinkedHashMap<>(); // session GUCs, e.g. statement_timeout: 30s
+    }
+}
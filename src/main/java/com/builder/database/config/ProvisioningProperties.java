@@ -0,0 +1,16 @@
+package com.builder.database.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "builder.provisioning")
+public class ProvisioningProperties {
+    private int parallelism = 4;                 // concurrent DDL transactions; each holds a metadata connection
+    private int tablesPerTransaction = 25;
+    private int maxTables = 1000;                // per /create/batch request
+}
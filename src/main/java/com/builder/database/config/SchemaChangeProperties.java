@@ -0,0 +1,19 @@
+package com.builder.database.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "builder.schema-changes")
+public class SchemaChangeProperties {
+    private boolean listen = true;               // LISTEN for notifications of the event trigger in db/event-trigger
+    private boolean installTrigger = false;      // install the event trigger at startup (needs a superuser)
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private Duration reconnectInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,45 @@
+package com.builder.database.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "builder.select")
+public class SelectProperties {
+    private int streamFetchSize = 1000; // rows per server-side cursor round-trip
+    private int defaultPageSize = 1000;
+    private int maxPageSize = 10000;
+    private boolean statementCacheEnabled = true; // reuse generated SQL per query shape
+    private ResultCache resultCache = new ResultCache();
+    private Approximate approximate = new Approximate();
+    private RollupRouting rollupRouting = new RollupRouting();
+
+    @Getter
+    @Setter
+    public static class ResultCache {
+        private boolean enabled = false; // caches aggregation selects unless a request opts out
+        private long maxBytes = 64L * 1024 * 1024;
+        private Duration ttl = Duration.ofMinutes(5); // bounds staleness from writes made by other replicas
+    }
+
+    @Getter
+    @Setter
+    public static class Approximate {
+        private int hllPrecision = 12;   // 2^12 registers per group, ~1.6% standard error
+        private int kllK = 200;          // ~1% rank error for APPROX_PERCENTILE
+        private int maxGroups = 10000;   // bounds the sketches held per query
+    }
+
+    @Getter
+    @Setter
+    public static class RollupRouting {
+        private int maxShapes = 10000;
+        private Duration ttl = Duration.ofSeconds(5); // bounds how long rollups marked stale by other replicas keep serving
+    }
+}
@@ -0,0 +1,137 @@
+package com.builder.database.config;
+
+import com.builder.database.metrics.PoolMetrics;
+import com.builder.database.model.Workload;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Routes each workload to its own Hikari pool, so ingest and flush bursts cannot starve selects.
+ * METADATA keeps the primary pool; with builder.pools.enabled=false every workload shares it.
+ */
+@Slf4j
+@Component
+public class WorkloadDataSources {
+
+    private static final Pattern SETTING_NAME = Pattern.compile("[a-z_][a-z0-9_.]*");
+    private static final Pattern SETTING_VALUE = Pattern.compile("[^\\s\\\\]+");
+
+    private final Map<Workload, JdbcTemplate> jdbcTemplates = new EnumMap<>(Workload.class);
+    private final Map<Workload, TransactionTemplate> transactionTemplates = new EnumMap<>(Workload.class);
+    private final Map<Workload, Integer> maximumPoolSizes = new EnumMap<>(Workload.class);
+    private final List<HikariDataSource> workloadPools = new ArrayList<>();
+
+    public WorkloadDataSources(DataSource dataSource,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               PoolProperties poolProperties,
+                               PoolMetrics poolMetrics) {
+        int primarySize = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+        for (Workload workload : Workload.values()) {
+            jdbcTemplates.put(workload, jdbcTemplate);
+            transactionTemplates.put(workload, transactionTemplate);
+            maximumPoolSizes.put(workload, primarySize);
+        }
+        if (!(dataSource instanceof HikariDataSource primary)) {
+            if (poolProperties.isEnabled()) {
+                throw new IllegalStateException("builder.pools needs HikariCP as the primary DataSource");
+            }
+            return;
+        }
+        poolMetrics.registerPool(Workload.METADATA, primary);
+        if (!poolProperties.isEnabled()) {
+            log.info("Workload pools disabled; all database work shares the primary pool");
+            return;
+        }
+
+        addPool(Workload.INGEST, poolProperties.getIngest(), primary, poolMetrics);
+        addPool(Workload.FLUSH, poolProperties.getFlush(), primary, poolMetrics);
+        addPool(Workload.QUERY, poolProperties.getQuery(), primary, poolMetrics);
+    }
+
+    public JdbcTemplate jdbcTemplate(Workload workload) {
+        return jdbcTemplates.get(workload);
+    }
+
+    public TransactionTemplate transactionTemplate(Workload workload) {
+        return transactionTemplates.get(workload);
+    }
+
+    public int maximumPoolSize(Workload workload) {
+        return maximumPoolSizes.get(workload);
+    }
+
+    public int workloadsSharingPool(Workload workload) {
+        JdbcTemplate pool = jdbcTemplates.get(workload);
+        return (int) jdbcTemplates.values().stream().filter(other -> other == pool).count();
+    }
+
+    private void addPool(Workload workload, PoolProperties.Pool pool, HikariDataSource primary, PoolMetrics poolMetrics) {
+        String name = workload.name().toLowerCase(Locale.ROOT);
+
+        // Not started here: like the primary, the pool connects on first use.
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(primary.getJdbcUrl());
+        dataSource.setUsername(primary.getUsername());
+        dataSource.setPassword(primary.getPassword());
+        if (primary.getDriverClassName() != null) {
+            dataSource.setDriverClassName(primary.getDriverClassName());
+        }
+        dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+        dataSource.setMinimumIdle(Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize()));
+        dataSource.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+        dataSource.setIdleTimeout(pool.getIdleTimeout().toMillis());
+        dataSource.setMaxLifetime(pool.getMaxLifetime().toMillis());
+
+        Properties properties = new Properties();
+        properties.putAll(primary.getDataSourceProperties());
+        String options = sessionOptions(name, pool.getSettings());
+        if (!options.isEmpty()) {
+            // Later -c flags win, so a workload setting overrides one inherited from the primary.
+            String inherited = properties.getProperty("options", "").trim();
+            properties.setProperty("options", inherited.isEmpty() ? options : inherited + " " + options);
+        }
+        dataSource.setDataSourceProperties(properties);
+        dataSource.setMetricsTrackerFactory(poolMetrics.trackerFactory());
+
+        poolMetrics.registerPool(workload, dataSource);
+        workloadPools.add(dataSource);
+        maximumPoolSizes.put(workload, pool.getMaximumPoolSize());
+        jdbcTemplates.put(workload, new JdbcTemplate(dataSource));
+        transactionTemplates.put(workload, new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        log.info("Workload pool {}: max {} connections, settings {}", name, pool.getMaximumPoolSize(), pool.getSettings());
+    }
+
+    private static String sessionOptions(String pool, Map<String, String> settings) {
+        List<String> flags = new ArrayList<>();
+        settings.forEach((key, value) -> {
+            // Spring drops underscores from map keys, so settings are written in kebab case.
+            String name = key.replace('-', '_');
+            if (!SETTING_NAME.matcher(name).matches() || value == null || !SETTING_VALUE.matcher(value).matches()) {
+                throw new IllegalStateException("Invalid session setting " + key + "=" + value + " for pool " + pool);
+            }
+            flags.add("-c " + name + "=" + value);
+        });
+        return String.join(" ", flags);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workloadPools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,7 @@
+package com.builder.database.config.errors;
+
+public class BackpressureException extends RuntimeException {
+    public BackpressureException(String message) {
+        super(message);
+    }
+}
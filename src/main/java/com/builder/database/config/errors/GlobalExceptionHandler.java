@@ -1,5 +1,6 @@
 package com.builder.database.config.errors;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -35,6 +36,13 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(BackpressureException.class)
+    public ResponseEntity<GenericErrorResponse> handleBackpressure(BackpressureException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new GenericErrorResponse(Instant.now(), 429, "Too many requests: " + ex.getMessage()));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<GenericErrorResponse> handleBadRequest(IllegalArgumentException ex) {
         return ResponseEntity.badRequest().body(
@@ -2,13 +2,28 @@ package com.builder.database.controller;
 
 import com.builder.database.dto.*;
 import com.builder.database.mapper.TableMapper;
+import com.builder.database.model.FlushMode;
+import com.builder.database.service.AsyncIngestBuffer;
+import com.builder.database.service.IndexAdvisorService;
+import com.builder.database.service.IndexBuildService;
+import com.builder.database.service.PartitionService;
+import com.builder.database.service.RollupService;
 import com.builder.database.service.TableMetadataService;
+import com.builder.database.service.TableProvisioningService;
 import com.builder.database.service.TableService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -17,8 +32,15 @@ import java.util.List;
 public class TableController {
 
     private final TableService tableService;
+    private final TableProvisioningService tableProvisioningService;
+    private final AsyncIngestBuffer asyncIngestBuffer;
+    private final IndexBuildService indexBuildService;
+    private final IndexAdvisorService indexAdvisorService;
     private final TableMetadataService tableMetadataService;
+    private final RollupService rollupService;
+    private final PartitionService partitionService;
     private final TableMapper tableMapper;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/create")
     public ResponseEntity<String> createTable(@RequestBody @Valid TableCreateRequestDto dto) {
@@ -26,12 +48,57 @@ public class TableController {
         return ResponseEntity.ok("Table created successfully.");
     }
 
+    @PostMapping("/create/batch")
+    public ResponseEntity<TableBatchCreateResultDto> createTables(@RequestBody @Valid TableBatchCreateRequestDto dto) {
+        TableBatchCreateResultDto result = tableProvisioningService.createTables(dto.getTables());
+        return ResponseEntity.status(result.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(result);
+    }
+
     @PostMapping("/select")
     public ResponseEntity<List<GenericResultRowDto>> executeSelect(@RequestBody @Valid SelectQueryRequestDto request) {
         List<GenericResultRowDto> results = tableService.executeSelectQuery(request);
         return ResponseEntity.ok(results);
     }
 
+    @PostMapping("/select/page")
+    public ResponseEntity<SelectPageDto> executeSelectPage(@RequestBody @Valid SelectQueryRequestDto request) {
+        return ResponseEntity.ok(tableService.executeSelectPage(request));
+    }
+
+    @PostMapping("/select/stream")
+    public ResponseEntity<StreamingResponseBody> streamSelect(
+            @RequestBody @Valid SelectQueryRequestDto request,
+            @RequestParam(name = "format", defaultValue = "ndjson") String format
+    ) {
+        boolean jsonArray = "json".equalsIgnoreCase(format);
+
+        StreamingResponseBody body = jsonArray
+                ? out -> {
+                    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                        generator.writeStartArray();
+                        tableService.streamSelectQuery(request, row -> {
+                            try {
+                                generator.writeObject(row);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                        generator.writeEndArray();
+                    }
+                }
+                : out -> tableService.streamSelectQuery(request, row -> {
+                    try {
+                        out.write((objectMapper.writeValueAsString(row) + "\n").getBytes(StandardCharsets.UTF_8));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+        return ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @PostMapping("/indexes/{schema}/{table}")
     public ResponseEntity<String> createIndex(
             @PathVariable String schema,
@@ -42,12 +109,99 @@ public class TableController {
         return ResponseEntity.ok("Index created successfully.");
     }
 
+    @PostMapping("/indexes/{schema}/{table}/online")
+    public ResponseEntity<IndexBuildDto> createIndexOnline(
+            @PathVariable String schema,
+            @PathVariable String table,
+            @RequestBody @Valid IndexDefinitionDto indexDto
+    ) {
+        return ResponseEntity.accepted().body(indexBuildService.submit(schema, table, indexDto));
+    }
+
+    @GetMapping("/indexes/builds")
+    public ResponseEntity<List<IndexBuildDto>> getIndexBuilds() {
+        return ResponseEntity.ok(indexBuildService.getBuilds());
+    }
+
+    @GetMapping("/indexes/builds/{id}")
+    public ResponseEntity<IndexBuildDto> getIndexBuild(@PathVariable String id) {
+        return ResponseEntity.ok(indexBuildService.getBuild(id));
+    }
+
+    @GetMapping("/advisor/recommendations")
+    public ResponseEntity<List<IndexRecommendationDto>> getIndexRecommendations(
+            @RequestParam(name = "schema", required = false) String schema,
+            @RequestParam(name = "table", required = false) String table,
+            @RequestParam(name = "limit", defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(indexAdvisorService.recommend(schema, table, limit));
+    }
+
+    @PostMapping("/advisor/recommendations/apply")
+    public ResponseEntity<List<IndexBuildDto>> applyIndexRecommendations(@RequestBody List<IndexRecommendationDto> approved) {
+        return ResponseEntity.accepted().body(indexAdvisorService.apply(approved));
+    }
+
     @PostMapping("/flush/{schema}/{table}")
     public ResponseEntity<String> flushTempTable(
             @PathVariable String schema,
-            @PathVariable String table) {
-        tableService.flushTempToActual(schema, table);
-        return ResponseEntity.ok("Flush completed.");
+            @PathVariable String table,
+            @RequestParam(name = "mode", required = false) FlushMode mode) {
+        int moved = tableService.flushTempToActual(schema, table, mode);
+        return ResponseEntity.ok("Flush completed. " + moved + " rows moved.");
+    }
+
+    @PostMapping("/rollups/{schema}/{table}")
+    public ResponseEntity<RollupDefinitionDto> createRollup(
+            @PathVariable String schema,
+            @PathVariable String table,
+            @RequestBody @Valid RollupDefinitionDto rollupDto
+    ) {
+        return ResponseEntity.ok(rollupService.createRollup(schema, table, rollupDto));
+    }
+
+    @GetMapping("/rollups/{schema}/{table}")
+    public ResponseEntity<List<RollupDefinitionDto>> getRollups(@PathVariable String schema, @PathVariable String table) {
+        return ResponseEntity.ok(rollupService.getRollups(schema, table));
+    }
+
+    @PostMapping("/rollups/{schema}/{table}/{name}/rebuild")
+    public ResponseEntity<String> rebuildRollup(
+            @PathVariable String schema,
+            @PathVariable String table,
+            @PathVariable String name) {
+        int groups = rollupService.rebuildRollup(schema, table, name);
+        return ResponseEntity.ok("Rollup rebuilt. " + groups + " groups.");
+    }
+
+    @DeleteMapping("/rollups/{schema}/{table}/{name}")
+    public ResponseEntity<String> dropRollup(
+            @PathVariable String schema,
+            @PathVariable String table,
+            @PathVariable String name) {
+        rollupService.dropRollup(schema, table, name);
+        return ResponseEntity.ok("Rollup dropped.");
+    }
+
+    @GetMapping("/partitions/{schema}/{table}")
+    public ResponseEntity<List<PartitionInfoDto>> getPartitions(@PathVariable String schema, @PathVariable String table) {
+        return ResponseEntity.ok(partitionService.getPartitions(schema, table));
+    }
+
+    @PostMapping("/partitions/{schema}/{table}/maintain")
+    public ResponseEntity<String> maintainPartitions(@PathVariable String schema, @PathVariable String table) {
+        int changed = partitionService.maintainPartitions(schema, table);
+        return ResponseEntity.ok("Partition maintenance completed. " + changed + " partitions changed.");
+    }
+
+    @DeleteMapping("/partitions/{schema}/{table}/{partition}")
+    public ResponseEntity<String> detachPartition(
+            @PathVariable String schema,
+            @PathVariable String table,
+            @PathVariable String partition,
+            @RequestParam(name = "drop", defaultValue = "false") boolean drop) {
+        partitionService.detachPartition(schema, table, partition, drop);
+        return ResponseEntity.ok(drop ? "Partition dropped." : "Partition detached.");
     }
 
     @GetMapping("/metadata/{schema}/{table}")
@@ -62,9 +216,17 @@ public class TableController {
     }
 
     @PostMapping("/insert")
-    public ResponseEntity<String> insertRows(@RequestBody @Valid InsertRequestDto request) {
-        tableService.insertRows(request.getSchemaName(), request.getTableName(), request.getRows());
-        return ResponseEntity.ok("Rows inserted successfully.");
+    public ResponseEntity<InsertResultDto> insertRows(@RequestBody @Valid InsertRequestDto request) {
+        InsertResultDto result = tableService.insertRows(
+                request.getSchemaName(), request.getTableName(), request.getRows(), request.getIngestMode());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/insert/async")
+    public ResponseEntity<AsyncInsertResultDto> insertRowsAsync(@RequestBody @Valid InsertRequestDto request) {
+        AsyncInsertResultDto result = asyncIngestBuffer.append(
+                request.getSchemaName(), request.getTableName(), request.getRows(), request.getIngestMode());
+        return ResponseEntity.accepted().body(result);
     }
 
 }
@@ -8,7 +8,8 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 public class AggregationRequestDto {
-    private String function; // e.g., SUM, AVG, COUNT
+    private String function; // e.g., SUM, AVG, COUNT, APPROX_COUNT_DISTINCT, APPROX_PERCENTILE
     private String column;
     private String alias;
+    private Double parameter; // Fraction in [0, 1] for APPROX_PERCENTILE
 }
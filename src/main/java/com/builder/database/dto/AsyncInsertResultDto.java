@@ -0,0 +1,16 @@
+package com.builder.database.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AsyncInsertResultDto {
+    private String schemaName;
+    private String tableName;
+    private long acceptedRows;
+    private Long bufferedRows; // rows of this table waiting in memory for a group commit; null when spooled
+    private boolean durable;   // true once the rows are fsynced to the local spool
+}
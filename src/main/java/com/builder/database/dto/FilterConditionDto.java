@@ -0,0 +1,18 @@
+package com.builder.database.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FilterConditionDto {
+    private String operator; // EQ, NE, LT, LTE, GT, GTE, BETWEEN, IN, IS_NULL, IS_NOT_NULL, STARTS_WITH, AND, OR, NOT
+    private String column;   // leaf operators only
+    private Object value;    // single-value operators
+    private List<Object> values; // BETWEEN (two bounds) and IN
+    private List<FilterConditionDto> conditions; // AND, OR, NOT (exactly one)
+}
@@ -0,0 +1,29 @@
+package com.builder.database.dto;
+
+import com.builder.database.model.IndexBuildStatus;
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IndexBuildDto {
+    private String id;
+    private String schemaName;
+    private String tableName;
+    private String indexName;
+    private IndexBuildStatus status;
+    private String phase;        // pg_stat_progress_create_index.phase while RUNNING
+    private Long blocksDone;
+    private Long blocksTotal;
+    private Long tuplesDone;
+    private Long tuplesTotal;
+    private Double progress;     // 0..1 within the current phase, when it reports totals
+    private String error;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
@@ -1,5 +1,7 @@
 package com.builder.database.dto;
 
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.*;
 
 import java.util.List;
@@ -10,7 +12,12 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 public class IndexDefinitionDto {
+    @Size(max = 63)
+    @Pattern(regexp = "^[a-zA-Z_]\\w*$")
+    private String name;     // optional; derived from the table and columns when absent
     private List<String> columnNames;
     private String indexType; // BTREE, HASH, etc.
     private boolean unique;
+    private List<String> includeColumns; // non-key payload columns (INCLUDE), for index-only scans
+    private FilterConditionDto where;    // partial index predicate, same shape as select filters
 }
@@ -0,0 +1,22 @@
+package com.builder.database.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IndexRecommendationDto {
+    private String schemaName;
+    private String tableName;
+    private IndexDefinitionDto index;
+    private String method;           // HYPOPG: costs of a hypothetical index; HEURISTIC: selectivity of the seq scan it replaces
+    private long calls;              // recorded selects the index would serve
+    private double meanMillis;
+    private double p95Millis;
+    private double costBefore;       // EXPLAIN total cost of the hottest shape as planned today
+    private Double costAfter;        // with the hypothetical index (HYPOPG only)
+    private double estimatedSavedMillis; // recorded select time the index is estimated to save
+    private String exampleSql;       // parameterized text of the hottest shape it serves
+}
@@ -1,5 +1,6 @@
 package com.builder.database.dto;
 
+import com.builder.database.model.IngestMode;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.*;
@@ -22,4 +23,6 @@ public class InsertRequestDto {
 
     @NotEmpty
     private List<@NotEmpty Map<String, String>> rows;
+
+    private IngestMode ingestMode; // Optional, falls back to builder.ingest.mode
 }
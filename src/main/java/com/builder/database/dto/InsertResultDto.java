@@ -0,0 +1,19 @@
+package com.builder.database.dto;
+
+import com.builder.database.model.IngestMode;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InsertResultDto {
+    private String schemaName;
+    private String tableName;
+    private boolean stagingTable; // true when rows landed in __tmp_write_<table>
+    private IngestMode mode;
+    private long rowCount;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+}
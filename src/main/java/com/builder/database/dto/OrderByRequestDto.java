@@ -0,0 +1,13 @@
+package com.builder.database.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderByRequestDto {
+    private String column;
+    private String direction; // ASC (default) or DESC
+}
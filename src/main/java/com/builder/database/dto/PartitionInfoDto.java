@@ -0,0 +1,13 @@
+package com.builder.database.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PartitionInfoDto {
+    private String name;
+    private String bound; // e.g. FOR VALUES FROM ('2026-10-01') TO ('2026-11-01')
+}
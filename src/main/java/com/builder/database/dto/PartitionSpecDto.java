@@ -0,0 +1,38 @@
+package com.builder.database.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PartitionSpecDto {
+
+    @NotBlank
+    private String strategy; // RANGE, LIST or HASH
+
+    @NotBlank
+    @Pattern(regexp = "^[a-zA-Z_]\\w*$")
+    private String column;
+
+    private String interval; // RANGE: DAY, WEEK, MONTH or YEAR
+
+    @PositiveOrZero
+    private Integer premake; // RANGE: future partitions to keep ahead, defaults to builder.partition.default-premake
+
+    @PositiveOrZero
+    private Integer retention; // RANGE: past partitions to keep attached, unlimited when absent
+
+    private boolean dropOnRetention; // RANGE: drop expired partitions instead of only detaching them
+
+    private Map<String, List<String>> listValues; // LIST: partition suffix -> values
+
+    private Integer modulus; // HASH: number of partitions
+}
@@ -0,0 +1,29 @@
+package com.builder.database.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupDefinitionDto {
+
+    @NotBlank
+    @Pattern(regexp = "^[a-zA-Z_]\\w*$")
+    private String name;
+
+    @Size(min = 1)
+    @NotNull
+    private List<String> groupBy;
+
+    @Size(min = 1)
+    @NotNull
+    private List<@Valid AggregationRequestDto> aggregations; // COUNT, SUM, AVG, MIN, MAX
+
+    private boolean stale; // Read-only: true until the rollup is rebuilt
+}
@@ -0,0 +1,15 @@
+package com.builder.database.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SelectPageDto {
+    private List<GenericResultRowDto> rows;
+    private String nextPageToken; // null on the last page
+}
@@ -1,5 +1,6 @@
 package com.builder.database.dto;
 
+import jakarta.validation.constraints.Positive;
 import lombok.*;
 
 import java.util.List;
@@ -9,11 +10,17 @@ import java.util.Map;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class SelectQueryRequestDto {
     private String schemaName;
     private String tableName;
     private List<String> columns; // Specific fields to retrieve
-    private Map<String, Object> filters; // Optional where conditions
+    private Map<String, Object> filters; // Optional equality conditions, AND-ed with where
+    private FilterConditionDto where; // Optional predicate tree
     private List<AggregationRequestDto> aggregations; // Optional rollups
+    private List<OrderByRequestDto> orderBy; // Optional sort, also the keyset for paging
+    @Positive
+    private Integer limit; // Optional row cap, page size for paged selects
+    private String pageToken; // Opaque continuation token from the previous page
+    private Boolean cacheResult; // Optional override of builder.select.result-cache for this request
 }
@@ -0,0 +1,18 @@
+package com.builder.database.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TableBatchCreateRequestDto {
+
+    @NotEmpty
+    private List<@Valid TableCreateRequestDto> tables;
+}
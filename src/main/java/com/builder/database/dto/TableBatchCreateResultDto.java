@@ -0,0 +1,17 @@
+package com.builder.database.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TableBatchCreateResultDto {
+    private int created;
+    private int failed;
+    private long elapsedMillis;
+    private List<TableCreateResultDto> results; // in request order
+}
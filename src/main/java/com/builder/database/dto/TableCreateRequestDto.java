@@ -29,5 +29,8 @@ public class TableCreateRequestDto {
 
     private boolean temporaryWriteTable;
 
+    @Valid
+    private PartitionSpecDto partition; // Optional declarative partitioning of the actual table
+
 
 }
@@ -0,0 +1,15 @@
+package com.builder.database.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TableCreateResultDto {
+    private String schemaName;
+    private String tableName;
+    private boolean created;
+    private String error;    // why the table was not created, or why its registry entry failed afterwards
+}
@@ -0,0 +1,62 @@
+package com.builder.database.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "partition_metadata")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionMetadata {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "schema_name", nullable = false)
+    private String schemaName;
+
+    @Column(name = "table_name", nullable = false)
+    private String tableName;
+
+    @Column(name = "strategy", nullable = false)
+    private String strategy;
+
+    @Column(name = "partition_column", nullable = false)
+    private String partitionColumn;
+
+    @Column(name = "range_interval")
+    private String rangeInterval;
+
+    @Column(name = "premake")
+    private Integer premake;
+
+    @Column(name = "retention")
+    private Integer retention;
+
+    @Column(name = "drop_on_retention")
+    private boolean dropOnRetention;
+
+    @Column(name = "list_values", columnDefinition = "jsonb")
+    @JdbcTypeCode(SqlTypes.JSON)
+    private String listValuesJson;
+
+    @Column(name = "modulus")
+    private Integer modulus;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -18,9 +18,32 @@ public class TableMapper {
                 .temporaryWriteTable(dto.isTemporaryWriteTable())
                 .columns(toModelColumns(dto.getColumns()))
                 .indexes(toModelIndexes(dto.getIndexes()))
+                .partition(toModel(dto.getPartition()))
                 .build();
     }
 
+    public PartitionSpec toModel(PartitionSpecDto dto) {
+        if (dto == null) return null;
+        return PartitionSpec.builder()
+                .strategy(parseEnum(PartitionStrategy.class, dto.getStrategy(), "partition strategy"))
+                .column(dto.getColumn())
+                .interval(dto.getInterval() == null ? null : parseEnum(PartitionInterval.class, dto.getInterval(), "partition interval"))
+                .premake(dto.getPremake())
+                .retention(dto.getRetention())
+                .dropOnRetention(dto.isDropOnRetention())
+                .listValues(dto.getListValues())
+                .modulus(dto.getModulus())
+                .build();
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> type, String value, String label) {
+        try {
+            return Enum.valueOf(type, String.valueOf(value).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported " + label + ": " + value);
+        }
+    }
+
     public List<ColumnDefinition> toModelColumns(List<ColumnDefinitionDto> columnDtos) {
         if (columnDtos == null) return null;
         return columnDtos.stream().map(this::toModel).collect(Collectors.toList());
@@ -43,9 +66,12 @@ public class TableMapper {
 
     public IndexDefinition toModel(IndexDefinitionDto dto) {
         return IndexDefinition.builder()
+                .name(dto.getName())
                 .columnNames(dto.getColumnNames())
                 .indexType(dto.getIndexType())
                 .unique(dto.isUnique())
+                .includeColumns(dto.getIncludeColumns())
+                .where(toModel(dto.getWhere()))
                 .build();
     }
 
@@ -55,7 +81,46 @@ public class TableMapper {
                 .tableName(dto.getTableName())
                 .columns(dto.getColumns())
                 .filters(dto.getFilters())
+                .where(toModel(dto.getWhere()))
                 .aggregations(toModelAggregations(dto.getAggregations()))
+                .orderBy(toModelOrderBy(dto.getOrderBy()))
+                .limit(dto.getLimit())
+                .build();
+    }
+
+    public FilterCondition toModel(FilterConditionDto dto) {
+        if (dto == null) return null;
+        FilterOperator operator;
+        try {
+            operator = FilterOperator.valueOf(String.valueOf(dto.getOperator()).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported filter operator: " + dto.getOperator());
+        }
+        return FilterCondition.builder()
+                .operator(operator)
+                .column(dto.getColumn())
+                .value(dto.getValue())
+                .values(dto.getValues())
+                .conditions(dto.getConditions() == null ? null
+                        : dto.getConditions().stream().map(this::toModel).collect(Collectors.toList()))
+                .build();
+    }
+
+    public List<OrderByRequest> toModelOrderBy(List<OrderByRequestDto> orderByDtos) {
+        if (orderByDtos == null) return null;
+        return orderByDtos.stream()
+                .map(this::toModel)
+                .collect(Collectors.toList());
+    }
+
+    public OrderByRequest toModel(OrderByRequestDto dto) {
+        String direction = dto.getDirection() == null ? "ASC" : dto.getDirection().toUpperCase();
+        if (!direction.equals("ASC") && !direction.equals("DESC")) {
+            throw new IllegalArgumentException("Unsupported sort direction: " + dto.getDirection());
+        }
+        return OrderByRequest.builder()
+                .column(dto.getColumn())
+                .descending(direction.equals("DESC"))
                 .build();
     }
 
@@ -71,6 +136,7 @@ public class TableMapper {
                 .column(dto.getColumn())
                 .function(dto.getFunction())
                 .alias(dto.getAlias())
+                .parameter(dto.getParameter())
                 .build();
     }
 
@@ -82,6 +148,21 @@ public class TableMapper {
                 .temporaryWriteTable(model.isTemporaryWriteTable())
                 .columns(toDtoColumns(model.getColumns()))
                 .indexes(toDtoIndexes(model.getIndexes()))
+                .partition(toDto(model.getPartition()))
+                .build();
+    }
+
+    public PartitionSpecDto toDto(PartitionSpec model) {
+        if (model == null) return null;
+        return PartitionSpecDto.builder()
+                .strategy(model.getStrategy().name())
+                .column(model.getColumn())
+                .interval(model.getInterval() == null ? null : model.getInterval().name())
+                .premake(model.getPremake())
+                .retention(model.getRetention())
+                .dropOnRetention(model.isDropOnRetention())
+                .listValues(model.getListValues())
+                .modulus(model.getModulus())
                 .build();
     }
 
@@ -107,9 +188,24 @@ public class TableMapper {
 
     public IndexDefinitionDto toDto(IndexDefinition model) {
         return IndexDefinitionDto.builder()
+                .name(model.getName())
                 .columnNames(model.getColumnNames())
                 .indexType(model.getIndexType())
                 .unique(model.isUnique())
+                .includeColumns(model.getIncludeColumns())
+                .where(toDto(model.getWhere()))
+                .build();
+    }
+
+    public FilterConditionDto toDto(FilterCondition model) {
+        if (model == null) return null;
+        return FilterConditionDto.builder()
+                .operator(model.getOperator().name())
+                .column(model.getColumn())
+                .value(model.getValue())
+                .values(model.getValues())
+                .conditions(model.getConditions() == null ? null
+                        : model.getConditions().stream().map(this::toDto).collect(Collectors.toList()))
                 .build();
     }
 
@@ -123,6 +219,26 @@ public class TableMapper {
                 .column(model.getColumn())
                 .function(model.getFunction())
                 .alias(model.getAlias())
+                .parameter(model.getParameter())
+                .build();
+    }
+
+    public RollupDefinition toModel(String schemaName, String tableName, RollupDefinitionDto dto) {
+        return RollupDefinition.builder()
+                .schemaName(schemaName)
+                .tableName(tableName)
+                .name(dto.getName())
+                .groupBy(dto.getGroupBy())
+                .aggregations(toModelAggregations(dto.getAggregations()))
+                .build();
+    }
+
+    public RollupDefinitionDto toDto(RollupDefinition model) {
+        return RollupDefinitionDto.builder()
+                .name(model.getName())
+                .groupBy(model.getGroupBy())
+                .aggregations(toDtoAggregations(model.getAggregations()))
+                .stale(model.isStale())
                 .build();
     }
 
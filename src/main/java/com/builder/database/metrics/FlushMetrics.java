@@ -0,0 +1,35 @@
+package com.builder.database.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+@Component
+@RequiredArgsConstructor
+public class FlushMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public void recordFlush(String schema, String table, long rows, long elapsedNanos) {
+        String key = schema + "." + table;
+        meterRegistry.counter("builder.flush.rows", "table", key).increment(rows);
+        meterRegistry.timer("builder.flush.duration", "table", key).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> void registerLagGauge(String schema, String table, T state, ToDoubleFunction<T> lagSeconds) {
+        Gauge.builder("builder.flush.lag", state, lagSeconds)
+                .description("Upper bound on the age of the oldest unflushed staged row, 0 once drained")
+                .baseUnit("seconds")
+                .tag("table", schema + "." + table)
+                .register(meterRegistry);
+    }
+
+    public void removeLagGauge(String schema, String table) {
+        meterRegistry.find("builder.flush.lag").tag("table", schema + "." + table).gauges()
+                .forEach(meterRegistry::remove);
+    }
+}
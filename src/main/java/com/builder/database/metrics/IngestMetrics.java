@@ -0,0 +1,63 @@
+package com.builder.database.metrics;
+
+import com.builder.database.model.IngestMode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+@Component
+@RequiredArgsConstructor
+public class IngestMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public void record(IngestMode mode, boolean stagingTable, long rows, long elapsedNanos) {
+        String target = stagingTable ? "staging" : "actual";
+        meterRegistry.counter("builder.ingest.rows", "mode", mode.name(), "target", target).increment(rows);
+        meterRegistry.timer("builder.ingest.duration", "mode", mode.name(), "target", target)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> void registerBufferGauge(String schema, String table, T buffer, ToDoubleFunction<T> bufferedRows) {
+        Gauge.builder("builder.ingest.async.buffered", buffer, bufferedRows)
+                .description("Rows acknowledged by /insert/async and not yet committed")
+                .tag("table", schema + "." + table)
+                .register(meterRegistry);
+    }
+
+    public void removeBufferGauge(String schema, String table) {
+        meterRegistry.find("builder.ingest.async.buffered").tag("table", schema + "." + table).gauges()
+                .forEach(meterRegistry::remove);
+    }
+
+    public void recordGroupCommit(String schema, String table, int callers, long rows) {
+        String key = schema + "." + table;
+        meterRegistry.counter("builder.ingest.async.commits", "table", key).increment();
+        meterRegistry.summary("builder.ingest.async.commit.rows", "table", key).record(rows);
+        meterRegistry.summary("builder.ingest.async.commit.callers", "table", key).record(callers);
+    }
+
+    public <T> void registerSpoolGauge(T spool, ToDoubleFunction<T> pendingBytes) {
+        Gauge.builder("builder.ingest.spool.pending", spool, pendingBytes)
+                .description("Bytes in the local ingest spool not yet replayed into the database")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void recordSpoolReplay(int records, long rows) {
+        meterRegistry.counter("builder.ingest.spool.replayed.records").increment(records);
+        meterRegistry.counter("builder.ingest.spool.replayed.rows").increment(rows);
+    }
+
+    public void recordRejected(String schema, String table, long rows) {
+        meterRegistry.counter("builder.ingest.async.rejected", "table", schema + "." + table).increment(rows);
+    }
+
+    public void recordDropped(String schema, String table, long rows) {
+        meterRegistry.counter("builder.ingest.async.dropped", "table", schema + "." + table).increment(rows);
+    }
+}
@@ -0,0 +1,23 @@
+package com.builder.database.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class MetadataMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public void recordBootstrap(long elapsedNanos, int changedRows) {
+        meterRegistry.timer("builder.metadata.bootstrap").record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("builder.metadata.bootstrap.changes").increment(changedRows);
+    }
+
+    public void recordSchemaChange() {
+        meterRegistry.counter("builder.metadata.schema.changes").increment();
+    }
+}
@@ -0,0 +1,58 @@
+package com.builder.database.metrics;
+
+import com.builder.database.model.Workload;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+
+@Component
+@RequiredArgsConstructor
+public class PoolMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsTrackerFactory trackerFactory() {
+        return new MicrometerMetricsTrackerFactory(meterRegistry);
+    }
+
+    public void registerPool(Workload workload, HikariDataSource dataSource) {
+        Gauge.builder("builder.pool.utilization", dataSource, PoolMetrics::utilization)
+                .description("Share of the pool's maximum connections currently checked out")
+                .tag("workload", workload.name())
+                .tag("pool", Objects.requireNonNullElse(dataSource.getPoolName(), workload.name().toLowerCase(Locale.ROOT)))
+                .register(meterRegistry);
+    }
+
+    public void registerAdmission(Workload workload, Semaphore permits, int limit) {
+        Gauge.builder("builder.admission.in-flight", permits, p -> limit - p.availablePermits())
+                .description("Operations admitted and not yet finished")
+                .tag("workload", workload.name())
+                .register(meterRegistry);
+        Gauge.builder("builder.admission.waiting", permits, Semaphore::getQueueLength)
+                .description("Operations queued for an admission permit")
+                .tag("workload", workload.name())
+                .register(meterRegistry);
+    }
+
+    public void recordRejection(Workload workload) {
+        meterRegistry.counter("builder.admission.rejected", "workload", workload.name()).increment();
+    }
+
+    private static double utilization(HikariDataSource dataSource) {
+        // Null until the first connection is requested; the pool starts lazily.
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null || dataSource.getMaximumPoolSize() <= 0) {
+            return 0d;
+        }
+        return (double) pool.getActiveConnections() / dataSource.getMaximumPoolSize();
+    }
+}
@@ -11,4 +11,5 @@ public class AggregationRequest {
     private String column;
     private String function; // e.g., SUM, AVG, COUNT
     private String alias;    // name for the aggregated column
+    private Double parameter; // e.g., the fraction for APPROX_PERCENTILE
 }
@@ -0,0 +1,18 @@
+package com.builder.database.model;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FilterCondition {
+    private FilterOperator operator;
+    private String column;
+    private Object value;
+    private List<Object> values;
+    private List<FilterCondition> conditions;
+}
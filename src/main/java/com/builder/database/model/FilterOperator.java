@@ -0,0 +1,11 @@
+package com.builder.database.model;
+
+public enum FilterOperator {
+    EQ, NE, LT, LTE, GT, GTE,   // column <op> value
+    BETWEEN,                    // column BETWEEN values[0] AND values[1]
+    IN,                         // column IN (values...)
+    IS_NULL, IS_NOT_NULL,       // column only
+    STARTS_WITH,                // column LIKE 'value%', btree-usable with text_pattern_ops or C collation
+    AND, OR,                    // conditions...
+    NOT                         // conditions[0]
+}
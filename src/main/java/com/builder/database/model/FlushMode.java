@@ -0,0 +1,6 @@
+package com.builder.database.model;
+
+public enum FlushMode {
+    APPEND, // plain INSERT of every staged row
+    MERGE   // latest staged row per primary key, upserted with isDeleted as a soft delete
+}
@@ -0,0 +1,8 @@
+package com.builder.database.model;
+
+public enum IndexBuildStatus {
+    PENDING,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
@@ -10,7 +10,10 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 public class IndexDefinition {
+    private String name;
     private List<String> columnNames;
     private String indexType;  // e.g., btree, gin, etc.
     private boolean unique;
+    private List<String> includeColumns;
+    private FilterCondition where;
 }
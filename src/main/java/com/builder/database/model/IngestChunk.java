@@ -0,0 +1,18 @@
+package com.builder.database.model;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngestChunk {
+    private String schemaName;
+    private String tableName;
+    private IngestMode mode;               // null falls back to builder.ingest.mode
+    private List<Map<String, String>> rows; // one caller's append, kept together so it can be retried alone
+}
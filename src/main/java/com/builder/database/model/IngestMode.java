@@ -0,0 +1,8 @@
+package com.builder.database.model;
+
+public enum IngestMode {
+    INSERT,      // literal multi-row INSERT ... VALUES statements
+    PREPARED,    // one parameterized INSERT template executed through JDBC batches
+    COPY_TEXT,   // COPY ... FROM STDIN (FORMAT text)
+    COPY_BINARY  // COPY ... FROM STDIN (FORMAT binary), staging tables only
+}
@@ -0,0 +1,13 @@
+package com.builder.database.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderByRequest {
+    private String column;
+    private boolean descending;
+}
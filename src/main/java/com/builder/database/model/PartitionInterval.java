@@ -0,0 +1,38 @@
+package com.builder.database.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Width of one RANGE partition. Periods are aligned to calendar boundaries so every instance
+ * computes the same partition names and bounds.
+ */
+public enum PartitionInterval {
+    DAY,
+    WEEK,
+    MONTH,
+    YEAR;
+
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    public LocalDate next(LocalDate periodStart) {
+        return plus(periodStart, 1);
+    }
+
+    public LocalDate plus(LocalDate periodStart, long periods) {
+        return switch (this) {
+            case DAY -> periodStart.plusDays(periods);
+            case WEEK -> periodStart.plusWeeks(periods);
+            case MONTH -> periodStart.plusMonths(periods);
+            case YEAR -> periodStart.plusYears(periods);
+        };
+    }
+}
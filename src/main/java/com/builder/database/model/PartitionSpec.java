@@ -0,0 +1,22 @@
+package com.builder.database.model;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PartitionSpec {
+    private PartitionStrategy strategy;
+    private String column;
+    private PartitionInterval interval;         // RANGE only
+    private Integer premake;                    // RANGE: future periods kept created ahead of time
+    private Integer retention;                  // RANGE: past periods kept attached; null keeps all
+    private boolean dropOnRetention;            // RANGE: drop instead of only detaching expired partitions
+    private Map<String, List<String>> listValues; // LIST: partition suffix -> values
+    private Integer modulus;                    // HASH: number of partitions
+}
@@ -0,0 +1,7 @@
+package com.builder.database.model;
+
+public enum PartitionStrategy {
+    RANGE,
+    LIST,
+    HASH
+}
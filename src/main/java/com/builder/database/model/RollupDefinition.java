@@ -0,0 +1,19 @@
+package com.builder.database.model;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupDefinition {
+    private String schemaName;
+    private String tableName;
+    private String name;
+    private List<String> groupBy;
+    private List<AggregationRequest> aggregations;
+    private boolean stale; // set by writes the flush cannot apply incrementally, cleared by a rebuild
+}
@@ -15,5 +15,9 @@ public class SelectQueryRequest {
     private String tableName;
     private List<String> columns;
     private Map<String, Object> filters;
+    private FilterCondition where;
     private List<AggregationRequest> aggregations;
+    private List<OrderByRequest> orderBy;
+    private Integer limit;
+    private List<Object> keysetValues; // last-seen sort key, one value per orderBy entry
 }
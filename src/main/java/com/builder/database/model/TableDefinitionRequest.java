@@ -15,4 +15,5 @@ public class TableDefinitionRequest {
     private List<ColumnDefinition> columns;
     private List<IndexDefinition> indexes;
     private boolean temporaryWriteTable;
+    private PartitionSpec partition; // null for a plain heap table
 }
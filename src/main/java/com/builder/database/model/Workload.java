@@ -0,0 +1,8 @@
+package com.builder.database.model;
+
+public enum Workload {
+    INGEST,   // insertRows into staging or actual tables
+    FLUSH,    // staging drains and their ctid-range workers
+    QUERY,    // interactive and streamed selects
+    METADATA  // DDL, catalog reads and JPA; served by the primary spring.datasource pool
+}
@@ -0,0 +1,13 @@
+package com.builder.database.repository;
+
+import com.builder.database.entity.PartitionMetadata;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PartitionMetadataRepository extends JpaRepository<PartitionMetadata, Long> {
+    Optional<PartitionMetadata> findBySchemaNameAndTableName(String schema, String table);
+
+    List<PartitionMetadata> findByStrategy(String strategy);
+}
@@ -0,0 +1,20 @@
+package com.builder.database.repository;
+
+import com.builder.database.entity.RollupMetadata;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface RollupMetadataRepository extends JpaRepository<RollupMetadata, Long> {
+    List<RollupMetadata> findBySchemaNameAndTableName(String schema, String table);
+
+    Optional<RollupMetadata> findBySchemaNameAndTableNameAndRollupName(String schema, String table, String rollupName);
+
+    @Modifying
+    @Query("UPDATE RollupMetadata r SET r.stale = true WHERE r.schemaName = :schema AND r.tableName = :table AND r.stale = false")
+    int markStale(@Param("schema") String schema, @Param("table") String table);
+}
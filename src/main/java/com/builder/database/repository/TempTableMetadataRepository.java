@@ -7,4 +7,6 @@ import java.util.Optional;
 
 public interface TempTableMetadataRepository extends JpaRepository<TempTableMetadata, Long> {
     Optional<TempTableMetadata> findBySchemaNameAndOriginalTableName(String schema, String table);
+
+    Optional<TempTableMetadata> findBySchemaNameAndTempTableName(String schema, String tempTable);
 }
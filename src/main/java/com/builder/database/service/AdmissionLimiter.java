@@ -0,0 +1,101 @@
+package com.builder.database.service;
+
+import com.builder.database.config.AdmissionProperties;
+import com.builder.database.config.FlushProperties;
+import com.builder.database.config.WorkloadDataSources;
+import com.builder.database.config.errors.BackpressureException;
+import com.builder.database.config.errors.DatabaseOperationException;
+import com.builder.database.metrics.PoolMetrics;
+import com.builder.database.model.Workload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits at most as many operations per workload as its connection pool can serve, so callers
+ * queue here (fairly, with a timeout) instead of inside Hikari. That matters once requests run
+ * on virtual threads: nothing else bounds how many of them reach the database at once.
+ */
+@Slf4j
+@Component
+public class AdmissionLimiter {
+
+    private static final Permit NO_PERMIT = () -> { };
+
+    private final boolean enabled;
+    private final Map<Workload, Semaphore> permits = new EnumMap<>(Workload.class);
+    private final Map<Workload, Duration> acquireTimeouts = new EnumMap<>(Workload.class);
+    private final PoolMetrics poolMetrics;
+    private final ThreadLocal<Set<Workload>> held = ThreadLocal.withInitial(() -> EnumSet.noneOf(Workload.class));
+
+    public AdmissionLimiter(AdmissionProperties admissionProperties,
+                            WorkloadDataSources workloadDataSources,
+                            FlushProperties flushProperties,
+                            PoolMetrics poolMetrics) {
+        this.enabled = admissionProperties.isEnabled();
+        this.poolMetrics = poolMetrics;
+        if (!enabled) {
+            return;
+        }
+
+        for (Workload workload : Workload.values()) {
+            AdmissionProperties.Limit limit = switch (workload) {
+                case INGEST -> admissionProperties.getIngest();
+                case FLUSH -> admissionProperties.getFlush();
+                case QUERY -> admissionProperties.getQuery();
+                case METADATA -> admissionProperties.getMetadata();
+            };
+            int maxConcurrent = limit.getMaxConcurrent() > 0 ? limit.getMaxConcurrent()
+                    : defaultLimit(workload, workloadDataSources, flushProperties);
+            Semaphore semaphore = new Semaphore(maxConcurrent, true);
+            permits.put(workload, semaphore);
+            acquireTimeouts.put(workload, limit.getAcquireTimeout());
+            poolMetrics.registerAdmission(workload, semaphore, maxConcurrent);
+            log.info("Admitting up to {} concurrent {} operations", maxConcurrent, workload);
+        }
+    }
+
+    // A thread already holding a permit for the workload is admitted again without taking another.
+    public Permit acquire(Workload workload) {
+        if (!enabled || held.get().contains(workload)) {
+            return NO_PERMIT;
+        }
+        Semaphore semaphore = permits.get(workload);
+        Duration timeout = acquireTimeouts.get(workload);
+        try {
+            if (!semaphore.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                poolMetrics.recordRejection(workload);
+                throw new BackpressureException(workload + " capacity exhausted after waiting " + timeout.toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseOperationException("Interrupted while waiting for " + workload + " capacity", e);
+        }
+        held.get().add(workload);
+        return () -> {
+            held.get().remove(workload);
+            semaphore.release();
+        };
+    }
+
+    private static int defaultLimit(Workload workload, WorkloadDataSources workloadDataSources, FlushProperties flushProperties) {
+        // A shared pool is split between the workloads using it.
+        int poolSize = workloadDataSources.maximumPoolSize(workload) / workloadDataSources.workloadsSharingPool(workload);
+        // A parallel flush holds one connection per ctid range.
+        int connectionsPerOperation = workload == Workload.FLUSH ? Math.max(1, flushProperties.getParallelism()) : 1;
+        return Math.max(1, poolSize / connectionsPerOperation);
+    }
+
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,186 @@
+package com.builder.database.service;
+
+import com.builder.database.builder.ParameterizedSql;
+import com.builder.database.builder.PostgresParameterBinder;
+import com.builder.database.builder.PostgresSqlBuilder;
+import com.builder.database.builder.SqlBuilder;
+import com.builder.database.builder.SqlBuilderFactory;
+import com.builder.database.config.SelectProperties;
+import com.builder.database.config.WorkloadDataSources;
+import com.builder.database.model.AggregationRequest;
+import com.builder.database.model.SelectQueryRequest;
+import com.builder.database.model.Workload;
+import com.builder.database.sketch.HyperLogLog;
+import com.builder.database.sketch.KllSketch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Answers APPROX_COUNT_DISTINCT and APPROX_PERCENTILE. Each aggregation is a single pass:
+ * HyperLogLog registers are reduced in the database and only their maxima are read, while
+ * percentile values are streamed over a server-side cursor into a KLL sketch per group.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApproximateAggregationService {
+
+    public static final String APPROX_COUNT_DISTINCT = "APPROX_COUNT_DISTINCT";
+    public static final String APPROX_PERCENTILE = "APPROX_PERCENTILE";
+
+    private final WorkloadDataSources workloadDataSources;
+    private final SqlBuilderFactory sqlBuilderFactory;
+    private final SelectProperties selectProperties;
+
+    public boolean isApproximate(SelectQueryRequest request) {
+        return request.getAggregations() != null
+                && request.getAggregations().stream().anyMatch(ApproximateAggregationService::isApproximate);
+    }
+
+    public List<Map<String, Object>> execute(SelectQueryRequest request) {
+        validate(request);
+
+        SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
+        List<String> groupColumns = request.getColumns() != null ? request.getColumns() : List.of();
+        Map<List<Object>, Map<String, Object>> rows = new LinkedHashMap<>();
+
+        for (AggregationRequest agg : request.getAggregations()) {
+            Map<List<Object>, Object> results = isCountDistinct(agg)
+                    ? countDistinct(sqlBuilder, request, agg, groupColumns)
+                    : percentile(sqlBuilder, request, agg, groupColumns);
+            results.forEach((group, value) -> groupRow(rows, groupColumns, group).put(alias(agg), value));
+        }
+
+        if (rows.isEmpty() && groupColumns.isEmpty()) {
+            // Like an aggregate without GROUP BY, an empty input still yields one row.
+            rows.put(List.of(), new LinkedHashMap<>());
+        }
+        // A group whose values in some column are all null has no sketch for that aggregation.
+        for (AggregationRequest agg : request.getAggregations()) {
+            Object empty = isCountDistinct(agg) ? 0L : null;
+            rows.values().forEach(row -> row.putIfAbsent(alias(agg), empty));
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    private Map<List<Object>, Object> countDistinct(SqlBuilder sqlBuilder, SelectQueryRequest request,
+                                                   AggregationRequest agg, List<String> groupColumns) {
+        int precision = selectProperties.getApproximate().getHllPrecision();
+        ParameterizedSql query = sqlBuilder.buildHllRegisterSql(request, agg, precision);
+        log.debug("Approximate count distinct: {}", query.getSql());
+
+        Map<List<Object>, HyperLogLog> sketches = new LinkedHashMap<>();
+        streamRows(query, rs -> sketchFor(sketches, groupKey(rs, groupColumns), key -> new HyperLogLog(precision))
+                .update(rs.getInt(PostgresSqlBuilder.HLL_REGISTER), rs.getInt(PostgresSqlBuilder.HLL_RANK)));
+
+        Map<List<Object>, Object> results = new LinkedHashMap<>();
+        sketches.forEach((group, sketch) -> results.put(group, sketch.estimate()));
+        return results;
+    }
+
+    private Map<List<Object>, Object> percentile(SqlBuilder sqlBuilder, SelectQueryRequest request,
+                                                AggregationRequest agg, List<String> groupColumns) {
+        int k = selectProperties.getApproximate().getKllK();
+        ParameterizedSql query = sqlBuilder.buildSketchValueSql(request, agg);
+        log.debug("Approximate percentile: {}", query.getSql());
+
+        Map<List<Object>, KllSketch> sketches = new LinkedHashMap<>();
+        streamRows(query, rs -> {
+            Object value = rs.getObject(PostgresSqlBuilder.SKETCH_VALUE);
+            if (!(value instanceof Number number)) {
+                throw new IllegalArgumentException(APPROX_PERCENTILE + " needs a numeric column, got " + agg.getColumn());
+            }
+            sketchFor(sketches, groupKey(rs, groupColumns), key -> new KllSketch(k)).update(number.doubleValue());
+        });
+
+        Map<List<Object>, Object> results = new LinkedHashMap<>();
+        sketches.forEach((group, sketch) -> results.put(group, sketch.quantile(agg.getParameter())));
+        return results;
+    }
+
+    private void streamRows(ParameterizedSql query, RowCallbackHandler handler) {
+        JdbcTemplate jdbcTemplate = workloadDataSources.jdbcTemplate(Workload.QUERY);
+        workloadDataSources.transactionTemplate(Workload.QUERY).executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                            query.getSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    PostgresParameterBinder.bind(ps, query.parameterArray());
+                    ps.setFetchSize(selectProperties.getStreamFetchSize());
+                    return ps;
+                },
+                handler
+        ));
+    }
+
+    private <S> S sketchFor(Map<List<Object>, S> sketches, List<Object> group, Function<List<Object>, S> factory) {
+        S sketch = sketches.get(group);
+        if (sketch == null) {
+            int maxGroups = selectProperties.getApproximate().getMaxGroups();
+            if (sketches.size() >= maxGroups) {
+                throw new IllegalArgumentException("Approximate aggregations are limited to " + maxGroups + " groups");
+            }
+            sketch = factory.apply(group);
+            sketches.put(group, sketch);
+        }
+        return sketch;
+    }
+
+    private List<Object> groupKey(ResultSet rs, List<String> groupColumns) throws SQLException {
+        List<Object> key = new ArrayList<>(groupColumns.size());
+        for (String column : groupColumns) {
+            key.add(rs.getObject(column));
+        }
+        return key;
+    }
+
+    private Map<String, Object> groupRow(Map<List<Object>, Map<String, Object>> rows, List<String> groupColumns, List<Object> group) {
+        return rows.computeIfAbsent(group, key -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < groupColumns.size(); i++) {
+                row.put(groupColumns.get(i), key.get(i));
+            }
+            return row;
+        });
+    }
+
+    private void validate(SelectQueryRequest request) {
+        if (!request.getAggregations().stream().allMatch(ApproximateAggregationService::isApproximate)) {
+            throw new IllegalArgumentException("Approximate aggregations cannot be combined with exact ones in one select");
+        }
+        if ((request.getOrderBy() != null && !request.getOrderBy().isEmpty()) || request.getLimit() != null
+                || request.getKeysetValues() != null) {
+            throw new IllegalArgumentException("Approximate aggregations do not support orderBy, limit or paging");
+        }
+        for (AggregationRequest agg : request.getAggregations()) {
+            if (agg.getColumn() == null || agg.getColumn().isBlank() || agg.getColumn().equals("*")) {
+                throw new IllegalArgumentException(agg.getFunction() + " needs a column");
+            }
+            if (APPROX_PERCENTILE.equals(agg.getFunction().toUpperCase())
+                    && (agg.getParameter() == null || agg.getParameter() < 0 || agg.getParameter() > 1)) {
+                throw new IllegalArgumentException(APPROX_PERCENTILE + " needs a parameter between 0 and 1");
+            }
+        }
+    }
+
+    private static String alias(AggregationRequest agg) {
+        return agg.getAlias() != null && !agg.getAlias().isBlank() ? agg.getAlias() : agg.getFunction().toLowerCase();
+    }
+
+    private static boolean isCountDistinct(AggregationRequest agg) {
+        return APPROX_COUNT_DISTINCT.equals(agg.getFunction().toUpperCase());
+    }
+
+    private static boolean isApproximate(AggregationRequest agg) {
+        String function = agg.getFunction() == null ? "" : agg.getFunction().toUpperCase();
+        return function.equals(APPROX_COUNT_DISTINCT) || function.equals(APPROX_PERCENTILE);
+    }
+}
@@ -0,0 +1,340 @@
+package com.builder.database.service;
+
+import com.builder.database.config.IngestProperties;
+import com.builder.database.config.errors.BackpressureException;
+import com.builder.database.dto.AsyncInsertResultDto;
+import com.builder.database.metrics.IngestMetrics;
+import com.builder.database.model.IngestChunk;
+import com.builder.database.model.IngestMode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-side buffer behind /insert/async. Appends are acknowledged once held in memory and
+ * committed per table in group batches, in arrival order; they are lost on a crash unless
+ * builder.ingest.spool is enabled.
+ */
+@Slf4j
+@Component
+public class AsyncIngestBuffer {
+
+    private final IngestBatchWriter batchWriter;
+    private final IngestDeadLetters deadLetters;
+    private final ObjectProvider<IngestSpoolService> spool;
+    private final IngestProperties.Async config;
+    private final IngestMetrics ingestMetrics;
+    private final ThreadPoolExecutor writers;
+    private final Map<BufferKey, TableBuffer> buffers = new ConcurrentHashMap<>();
+    private final AtomicLong bufferedRows = new AtomicLong();
+    private final Set<String> gaugedTables = ConcurrentHashMap.newKeySet();
+
+    public AsyncIngestBuffer(IngestBatchWriter batchWriter,
+                             IngestDeadLetters deadLetters,
+                             ObjectProvider<IngestSpoolService> spool,
+                             IngestProperties ingestProperties,
+                             IngestMetrics ingestMetrics) {
+        this.batchWriter = batchWriter;
+        this.deadLetters = deadLetters;
+        this.spool = spool;
+        this.config = ingestProperties.getAsync();
+        this.ingestMetrics = ingestMetrics;
+
+        int threads = Math.max(1, config.getWriterThreads());
+        this.writers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("ingest-writer-"));
+    }
+
+    public AsyncInsertResultDto append(String schema, String table, List<Map<String, String>> rows, IngestMode mode) {
+        if (rows == null || rows.isEmpty()) {
+            throw new IllegalArgumentException("Insert rows cannot be empty");
+        }
+        IngestSpoolService spoolService = spool.getIfAvailable();
+        if (spoolService != null) {
+            return spoolService.append(schema, table, rows, mode);
+        }
+
+        if (bufferedRows.addAndGet(rows.size()) > config.getMaxBufferedRows()) {
+            bufferedRows.addAndGet(-rows.size());
+            ingestMetrics.recordRejected(schema, table, rows.size());
+            throw new BackpressureException("Async ingest buffers are full");
+        }
+        List<Map<String, String>> chunk = List.copyOf(rows);
+        TableBuffer buffer;
+        int buffered;
+        do {
+            // A buffer retired as idle in the meantime takes no rows; its replacement does.
+            buffer = buffers.computeIfAbsent(new BufferKey(schema, table, mode), this::newBuffer);
+            buffered = buffer.offer(chunk, config.getMaxBufferedRowsPerTable());
+        } while (buffered == TableBuffer.RETIRED);
+        if (buffered < 0) {
+            bufferedRows.addAndGet(-rows.size());
+            ingestMetrics.recordRejected(schema, table, rows.size());
+            throw new BackpressureException("Async ingest buffer for " + schema + "." + table + " is full");
+        }
+
+        if (buffered >= config.getBatchRows()) {
+            tryDispatch(buffer, System.currentTimeMillis());
+        }
+        return AsyncInsertResultDto.builder()
+                .schemaName(schema)
+                .tableName(table)
+                .acceptedRows(rows.size())
+                .bufferedRows((long) buffered)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${builder.ingest.async.poll-interval:50ms}")
+    public void dispatch() {
+        long now = System.currentTimeMillis();
+        buffers.values().forEach(buffer -> tryDispatch(buffer, now));
+        evictIdleBuffers(now);
+    }
+
+    private TableBuffer newBuffer(BufferKey key) {
+        registerGauge(key);
+        return new TableBuffer(key);
+    }
+
+    private void registerGauge(BufferKey key) {
+        synchronized (gaugedTables) {
+            if (gaugedTables.add(key.schema() + "." + key.table())) {
+                ingestMetrics.registerBufferGauge(key.schema(), key.table(), this,
+                        self -> self.bufferedRowsOf(key.schema(), key.table()));
+            }
+        }
+    }
+
+    private void evictIdleBuffers(long now) {
+        long idleMillis = config.getIdleTimeout().toMillis();
+        for (TableBuffer buffer : buffers.values()) {
+            if (!buffer.retireIfIdle(now, idleMillis)) {
+                continue;
+            }
+            buffers.remove(buffer.key, buffer);
+            String schema = buffer.key.schema();
+            String table = buffer.key.table();
+            synchronized (gaugedTables) {
+                boolean inUse = buffers.keySet().stream().anyMatch(key -> key.schema().equals(schema) && key.table().equals(table));
+                if (!inUse && gaugedTables.remove(schema + "." + table)) {
+                    ingestMetrics.removeBufferGauge(schema, table);
+                }
+            }
+        }
+        // A buffer created while its table's gauge was being removed registers it again here.
+        buffers.keySet().forEach(this::registerGauge);
+    }
+
+    private double bufferedRowsOf(String schema, String table) {
+        return buffers.values().stream()
+                .filter(buffer -> buffer.key.schema().equals(schema) && buffer.key.table().equals(table))
+                .mapToInt(TableBuffer::size)
+                .sum();
+    }
+
+    private void tryDispatch(TableBuffer buffer, long now) {
+        if (!buffer.claimIfReady(now, config.getBatchRows(), config.getMaxDelay().toMillis())) {
+            return;
+        }
+        try {
+            writers.execute(() -> write(buffer));
+        } catch (RejectedExecutionException e) {
+            buffer.release(0);
+        }
+    }
+
+    private void write(TableBuffer buffer) {
+        List<List<Map<String, String>>> chunks = buffer.take(config.getBatchRows());
+        long retryAt = 0;
+        try {
+            commit(buffer.key, chunks);
+            ingestMetrics.recordGroupCommit(buffer.key.schema(), buffer.key.table(), chunks.size(), rowCount(chunks));
+            bufferedRows.addAndGet(-rowCount(chunks));
+            buffer.attempts = 0;
+        } catch (RuntimeException e) {
+            List<List<Map<String, String>>> pending = IngestBatchWriter.isTransient(e)
+                    ? chunks
+                    : commitIndividually(buffer.key, chunks);
+            if (!pending.isEmpty()) {
+                retryAt = retryOrDeadLetter(buffer, pending, e);
+            }
+        } finally {
+            buffer.release(retryAt);
+        }
+    }
+
+    private long retryOrDeadLetter(TableBuffer buffer, List<List<Map<String, String>>> chunks, RuntimeException e) {
+        if (++buffer.attempts < config.getMaxAttempts()) {
+            log.warn("Group commit into {}.{} failed (attempt {} of {}), retrying {} rows: {}", buffer.key.schema(),
+                    buffer.key.table(), buffer.attempts, config.getMaxAttempts(), rowCount(chunks), e.getMessage());
+            buffer.requeue(chunks);
+            return System.currentTimeMillis() + config.getRetryInterval().toMillis();
+        }
+        buffer.attempts = 0;
+        deadLetter(buffer.key, chunks, "still failing after " + config.getMaxAttempts() + " attempts: " + e.getMessage());
+        bufferedRows.addAndGet(-rowCount(chunks));
+        return 0;
+    }
+
+    private void deadLetter(BufferKey key, List<List<Map<String, String>>> chunks, String reason) {
+        try {
+            deadLetters.write(toIngestChunks(key, chunks), reason);
+        } catch (IOException e) {
+            log.error("Lost {} asynchronously ingested rows for {}.{} ({}); writing the dead letter failed: {}",
+                    rowCount(chunks), key.schema(), key.table(), reason, e.getMessage());
+            ingestMetrics.recordDropped(key.schema(), key.table(), rowCount(chunks));
+        }
+    }
+
+    private void commit(BufferKey key, List<List<Map<String, String>>> chunks) {
+        batchWriter.commit(toIngestChunks(key, chunks));
+    }
+
+    private static List<IngestChunk> toIngestChunks(BufferKey key, List<List<Map<String, String>>> chunks) {
+        return chunks.stream()
+                .map(rows -> IngestChunk.builder()
+                        .schemaName(key.schema())
+                        .tableName(key.table())
+                        .mode(key.mode())
+                        .rows(rows)
+                        .build())
+                .toList();
+    }
+
+    // A batch rejected for its content is split back into appends, so one bad payload cannot sink the rest.
+    private List<List<Map<String, String>>> commitIndividually(BufferKey key, List<List<Map<String, String>>> chunks) {
+        for (int i = 0; i < chunks.size(); i++) {
+            List<Map<String, String>> chunk = chunks.get(i);
+            try {
+                commit(key, List.of(chunk));
+            } catch (RuntimeException e) {
+                if (IngestBatchWriter.isTransient(e)) {
+                    return chunks.subList(i, chunks.size());
+                }
+                deadLetter(key, List.of(chunk), e.getMessage());
+            }
+            bufferedRows.addAndGet(-chunk.size());
+        }
+        return List.of();
+    }
+
+    private static long rowCount(List<List<Map<String, String>>> chunks) {
+        return chunks.stream().mapToLong(List::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdown();
+        try {
+            if (!writers.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Async ingest writers did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Last attempt for whatever is still buffered, on the shutting-down thread.
+        for (TableBuffer buffer : buffers.values()) {
+            List<List<Map<String, String>>> chunks = buffer.take(Integer.MAX_VALUE);
+            if (chunks.isEmpty()) {
+                continue;
+            }
+            try {
+                commit(buffer.key, chunks);
+            } catch (RuntimeException e) {
+                deadLetter(buffer.key, chunks, "not committed at shutdown: " + e.getMessage());
+            }
+        }
+    }
+
+    private record BufferKey(String schema, String table, IngestMode mode) {
+    }
+
+    private static final class TableBuffer {
+        private static final int RETIRED = -2;
+
+        private final BufferKey key;
+        private final Deque<List<Map<String, String>>> chunks = new ArrayDeque<>();
+        private int rows;
+        private long oldestAt;
+        private boolean writing;
+        private long retryAt;
+        private long lastUsedAt = System.currentTimeMillis();
+        private boolean retired;
+        private int attempts; // of the batch being retried; only touched by the writer holding the buffer
+
+        private TableBuffer(BufferKey key) {
+            this.key = key;
+        }
+
+        private synchronized int offer(List<Map<String, String>> chunk, int maxRows) {
+            if (retired) {
+                return RETIRED;
+            }
+            lastUsedAt = System.currentTimeMillis();
+            if (rows + chunk.size() > maxRows) {
+                return -1;
+            }
+            if (chunks.isEmpty()) {
+                oldestAt = System.currentTimeMillis();
+            }
+            chunks.addLast(chunk);
+            rows += chunk.size();
+            return rows;
+        }
+
+        private synchronized boolean claimIfReady(long now, int batchRows, long maxDelayMillis) {
+            if (writing || rows == 0 || now < retryAt) {
+                return false;
+            }
+            if (rows < batchRows && now - oldestAt < maxDelayMillis) {
+                return false;
+            }
+            writing = true;
+            return true;
+        }
+
+        private synchronized List<List<Map<String, String>>> take(int batchRows) {
+            List<List<Map<String, String>>> taken = new ArrayList<>();
+            int taking = 0;
+            while (!chunks.isEmpty() && (taken.isEmpty() || taking + chunks.peekFirst().size() <= batchRows)) {
+                List<Map<String, String>> chunk = chunks.pollFirst();
+                taken.add(chunk);
+                taking += chunk.size();
+            }
+            rows -= taking;
+            oldestAt = System.currentTimeMillis();
+            return taken;
+        }
+
+        private synchronized void requeue(List<List<Map<String, String>>> taken) {
+            for (int i = taken.size() - 1; i >= 0; i--) {
+                chunks.addFirst(taken.get(i));
+                rows += taken.get(i).size();
+            }
+        }
+
+        private synchronized void release(long retryAt) {
+            this.writing = false;
+            this.retryAt = retryAt;
+        }
+
+        private synchronized int size() {
+            return rows;
+        }
+
+        private synchronized boolean retireIfIdle(long now, long idleMillis) {
+            if (rows == 0 && !writing && now - lastUsedAt >= idleMillis) {
+                retired = true;
+            }
+            return retired;
+        }
+    }
+}
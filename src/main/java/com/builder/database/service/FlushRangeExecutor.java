@@ -0,0 +1,61 @@
+package com.builder.database.service;
+
+import com.builder.database.config.FlushProperties;
+import com.builder.database.config.errors.DatabaseOperationException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Shared pool for parallel range drains. It is sized by builder.flush.parallelism, so concurrent
+ * flush calls queue behind each other instead of multiplying the connections they hold.
+ */
+@Component
+public class FlushRangeExecutor {
+
+    private final ExecutorService workers;
+
+    public FlushRangeExecutor(FlushProperties flushProperties) {
+        int threads = Math.max(1, flushProperties.getParallelism());
+        this.workers = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("flush-range-"));
+    }
+
+    // A failed range does not stop the others, since each commits on its own; the first failure is rethrown.
+    public int runAll(List<Callable<Integer>> ranges) {
+        List<Future<Integer>> futures;
+        try {
+            futures = workers.invokeAll(ranges);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseOperationException("Interrupted while flushing staging ranges", e);
+        }
+
+        int moved = 0;
+        RuntimeException failure = null;
+        for (Future<Integer> future : futures) {
+            try {
+                moved += future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException runtime ? runtime
+                            : new DatabaseOperationException("Staging range flush failed", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DatabaseOperationException("Interrupted while flushing staging ranges", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return moved;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
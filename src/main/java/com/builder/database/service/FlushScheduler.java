@@ -0,0 +1,181 @@
+package com.builder.database.service;
+
+import com.builder.database.config.FlushProperties;
+import com.builder.database.entity.TableMetadata;
+import com.builder.database.metrics.FlushMetrics;
+import com.builder.database.repository.TableMetadataRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Continuously drains every __tmp_write_ staging table registered in table_metadata.
+ * Each poll dispatches tables that are not backing off onto a bounded worker pool;
+ * a table that comes up empty backs off exponentially until rows show up again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "builder.flush.scheduler", name = "enabled", havingValue = "true")
+public class FlushScheduler {
+
+    private final TableService tableService;
+    private final TableMetadataRepository tableMetadataRepository;
+    private final FlushProperties flushProperties;
+    private final FlushMetrics flushMetrics;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, TableFlushState> states = new ConcurrentHashMap<>();
+
+    public FlushScheduler(TableService tableService,
+                          TableMetadataRepository tableMetadataRepository,
+                          FlushProperties flushProperties,
+                          FlushMetrics flushMetrics) {
+        this.tableService = tableService;
+        this.tableMetadataRepository = tableMetadataRepository;
+        this.flushProperties = flushProperties;
+        this.flushMetrics = flushMetrics;
+
+        int threads = flushProperties.getScheduler().getWorkerThreads();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads), new CustomizableThreadFactory("flush-worker-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Scheduled(fixedDelayString = "${builder.flush.scheduler.poll-interval:1s}")
+    public void dispatch() {
+        List<TableMetadata> tables;
+        try {
+            tables = tableMetadataRepository.findByHasTempTableTrue();
+        } catch (Exception e) {
+            log.warn("Flush scheduler could not list staging tables: {}", e.getMessage());
+            return;
+        }
+
+        Set<String> registered = tables.stream()
+                .map(table -> table.getSchemaName() + "." + table.getTableName())
+                .collect(Collectors.toSet());
+        states.entrySet().removeIf(entry -> {
+            if (registered.contains(entry.getKey())) {
+                return false;
+            }
+            flushMetrics.removeLagGauge(entry.getValue().schema, entry.getValue().table);
+            return true;
+        });
+
+        long now = System.currentTimeMillis();
+        for (TableMetadata table : tables) {
+            TableFlushState state = states.computeIfAbsent(
+                    table.getSchemaName() + "." + table.getTableName(),
+                    key -> newState(table.getSchemaName(), table.getTableName()));
+
+            if (now < state.nextEligibleAt || !state.permits.tryAcquire()) {
+                continue;
+            }
+            try {
+                workers.execute(() -> drain(state));
+            } catch (RejectedExecutionException e) {
+                // Pool saturated; the table is picked up again on the next poll.
+                state.permits.release();
+                return;
+            }
+        }
+    }
+
+    private TableFlushState newState(String schema, String table) {
+        TableFlushState state = new TableFlushState(schema, table,
+                flushProperties.getScheduler().getMaxConcurrentPerTable());
+        flushMetrics.registerLagGauge(schema, table, state, TableFlushState::lagSeconds);
+        return state;
+    }
+
+    private void drain(TableFlushState state) {
+        FlushProperties.Scheduler config = flushProperties.getScheduler();
+        // Counted in rows: a call over several ctid ranges moves a batch per range.
+        long budget = (long) config.getMaxBatchesPerRun() * flushProperties.getBatchSize();
+        try {
+            long total = 0;
+            while (total < budget) {
+                int moved = tableService.flushTempToActual(state.schema, state.table);
+                if (moved < flushProperties.getBatchSize()) {
+                    state.markDrained(moved == 0, config);
+                    return;
+                }
+                total += moved;
+                state.markProgress();
+            }
+        } catch (Exception e) {
+            log.warn("Background flush failed for {}.{}: {}", state.schema, state.table, e.getMessage());
+            state.markFailed(config);
+        } finally {
+            state.permits.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private static final class TableFlushState {
+        private final String schema;
+        private final String table;
+        private final Semaphore permits;
+        private volatile long nextEligibleAt;
+        private volatile long lastDrainedAt = System.currentTimeMillis();
+        private volatile long pendingSince;
+        private volatile long backoffMillis;
+
+        private TableFlushState(String schema, String table, int maxConcurrent) {
+            this.schema = schema;
+            this.table = table;
+            this.permits = new Semaphore(Math.max(1, maxConcurrent));
+        }
+
+        private synchronized void markProgress() {
+            if (pendingSince == 0) {
+                pendingSince = lastDrainedAt;
+            }
+            backoffMillis = 0;
+            nextEligibleAt = 0;
+        }
+
+        private synchronized void markDrained(boolean idle, FlushProperties.Scheduler config) {
+            lastDrainedAt = System.currentTimeMillis();
+            pendingSince = 0;
+            if (idle) {
+                backOff(config);
+            } else {
+                backoffMillis = 0;
+                nextEligibleAt = 0;
+            }
+        }
+
+        private synchronized void markFailed(FlushProperties.Scheduler config) {
+            if (pendingSince == 0) {
+                pendingSince = lastDrainedAt;
+            }
+            backOff(config);
+        }
+
+        private synchronized void backOff(FlushProperties.Scheduler config) {
+            backoffMillis = backoffMillis == 0
+                    ? config.getIdleBackoffInitial().toMillis()
+                    : Math.min(backoffMillis * 2, config.getIdleBackoffMax().toMillis());
+            nextEligibleAt = System.currentTimeMillis() + backoffMillis;
+        }
+
+        // Rows found after a drain arrived after it, so the drain time bounds their age.
+        private double lagSeconds() {
+            long since = pendingSince;
+            return since == 0 ? 0 : (System.currentTimeMillis() - since) / 1000d;
+        }
+    }
+}
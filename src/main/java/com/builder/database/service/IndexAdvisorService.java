@@ -0,0 +1,369 @@
+package com.builder.database.service;
+
+import com.builder.database.builder.ParameterizedSql;
+import com.builder.database.builder.PostgresParameterBinder;
+import com.builder.database.builder.SqlBuilder;
+import com.builder.database.builder.SqlBuilderFactory;
+import com.builder.database.config.AdvisorProperties;
+import com.builder.database.config.WorkloadDataSources;
+import com.builder.database.dto.IndexBuildDto;
+import com.builder.database.dto.IndexDefinitionDto;
+import com.builder.database.dto.IndexRecommendationDto;
+import com.builder.database.mapper.TableMapper;
+import com.builder.database.model.FilterCondition;
+import com.builder.database.model.FilterOperator;
+import com.builder.database.model.IndexBuildStatus;
+import com.builder.database.model.IndexDefinition;
+import com.builder.database.model.OrderByRequest;
+import com.builder.database.model.SelectQueryRequest;
+import com.builder.database.model.Workload;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggests btree indexes for the slow shapes recorded by {@link WorkloadRecorder}, from their
+ * filters, ordering and grouping. Candidates are weighed by EXPLAIN, against a hypothetical
+ * index when hypopg is installed and by predicate selectivity otherwise.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IndexAdvisorService {
+
+    private static final int MAX_INDEX_COLUMNS = 4;
+    private static final double MIN_BENEFIT = 0.1; // cost reduction below this is planner noise
+    private static final Set<FilterOperator> EQUALITY = EnumSet.of(FilterOperator.EQ, FilterOperator.IN, FilterOperator.IS_NULL);
+    private static final Set<FilterOperator> RANGE = EnumSet.of(FilterOperator.LT, FilterOperator.LTE,
+            FilterOperator.GT, FilterOperator.GTE, FilterOperator.BETWEEN, FilterOperator.STARTS_WITH);
+
+    private static final String RELATION_TUPLES_SQL = """
+            SELECT c.reltuples
+            FROM pg_class c
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE n.nspname = ? AND c.relname = ?
+            """;
+
+    private final WorkloadRecorder workloadRecorder;
+    private final WorkloadDataSources workloadDataSources;
+    private final SqlBuilderFactory sqlBuilderFactory;
+    private final TableMetadataService tableMetadataService;
+    private final IndexBuildService indexBuildService;
+    private final AdmissionLimiter admissionLimiter;
+    private final TableMapper tableMapper;
+    private final AdvisorProperties config;
+    private final ObjectMapper objectMapper;
+
+    public List<IndexRecommendationDto> recommend(String schema, String table, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        long slowNanos = config.getSlowThreshold().toNanos();
+        List<WorkloadRecorder.ShapeWorkload> shapes = workloadRecorder.snapshot(schema, table).stream()
+                .filter(shape -> shape.calls() >= config.getMinCalls() && shape.p95Nanos() >= slowNanos)
+                .sorted(Comparator.comparingLong(WorkloadRecorder.ShapeWorkload::totalNanos).reversed())
+                .limit(config.getMaxShapesAnalysed())
+                .toList();
+        if (shapes.isEmpty()) {
+            return List.of();
+        }
+
+        try (AdmissionLimiter.Permit ignored = admissionLimiter.acquire(Workload.QUERY)) {
+            JdbcTemplate jdbcTemplate = workloadDataSources.jdbcTemplate(Workload.QUERY);
+            boolean hypopg = !jdbcTemplate.queryForList("SELECT 1 FROM pg_extension WHERE extname = 'hypopg'").isEmpty();
+
+            // Keyed by table and index columns, so shapes served by the same index add up.
+            Map<String, IndexRecommendationDto> recommendations = new LinkedHashMap<>();
+            Map<String, List<List<String>>> existingIndexes = new LinkedHashMap<>();
+            for (WorkloadRecorder.ShapeWorkload shape : shapes) {
+                List<List<String>> existing = existingIndexes.computeIfAbsent(shape.schemaName() + "." + shape.tableName(),
+                        key -> existingIndexColumns(shape.schemaName(), shape.tableName()));
+                for (IndexDefinition candidate : candidates(shape.sample(), existing)) {
+                    try {
+                        IndexRecommendationDto weighed = weigh(jdbcTemplate, shape, candidate, hypopg);
+                        if (weighed != null) {
+                            merge(recommendations, weighed);
+                        }
+                    } catch (RuntimeException e) {
+                        log.warn("Could not weigh index {} on {}.{}: {}", candidate.getColumnNames(),
+                                shape.schemaName(), shape.tableName(), e.getMessage());
+                    }
+                }
+            }
+
+            return withoutCoveredPrefixes(recommendations.values().stream()
+                    .sorted(Comparator.comparingDouble(IndexRecommendationDto::getEstimatedSavedMillis).reversed())
+                    .toList()).stream()
+                    .limit(limit)
+                    .toList();
+        }
+    }
+
+    static List<IndexRecommendationDto> withoutCoveredPrefixes(List<IndexRecommendationDto> ranked) {
+        List<IndexRecommendationDto> kept = new ArrayList<>();
+        for (IndexRecommendationDto recommendation : ranked) {
+            boolean covered = kept.stream().anyMatch(better -> better.getSchemaName().equals(recommendation.getSchemaName())
+                    && better.getTableName().equals(recommendation.getTableName())
+                    && startsWith(better.getIndex().getColumnNames(), recommendation.getIndex().getColumnNames()));
+            if (!covered) {
+                kept.add(recommendation);
+            }
+        }
+        return kept;
+    }
+
+    public List<IndexBuildDto> apply(List<IndexRecommendationDto> approved) {
+        List<IndexBuildDto> builds = new ArrayList<>();
+        for (IndexRecommendationDto recommendation : approved) {
+            try {
+                if (recommendation.getIndex() == null) {
+                    throw new IllegalArgumentException("Recommendation has no index");
+                }
+                builds.add(indexBuildService.submit(recommendation.getSchemaName(), recommendation.getTableName(),
+                        recommendation.getIndex()));
+            } catch (IllegalArgumentException | RejectedExecutionException e) {
+                builds.add(IndexBuildDto.builder()
+                        .schemaName(recommendation.getSchemaName())
+                        .tableName(recommendation.getTableName())
+                        .indexName(recommendation.getIndex() != null ? recommendation.getIndex().getName() : null)
+                        .status(IndexBuildStatus.FAILED)
+                        .error(e.getMessage())
+                        .build());
+            }
+        }
+        return builds;
+    }
+
+    private List<IndexDefinition> candidates(SelectQueryRequest request, List<List<String>> existing) {
+        List<String> equality = new ArrayList<>();
+        List<String> range = new ArrayList<>();
+        if (request.getFilters() != null) {
+            equality.addAll(request.getFilters().keySet());
+        }
+        for (FilterCondition leaf : conjuncts(request.getWhere())) {
+            if (EQUALITY.contains(leaf.getOperator())) {
+                equality.add(leaf.getColumn());
+            } else if (RANGE.contains(leaf.getOperator())) {
+                range.add(leaf.getColumn());
+            }
+        }
+
+        Set<List<String>> columnLists = new LinkedHashSet<>();
+        columnLists.add(concat(equality, range.isEmpty() ? List.of() : List.of(range.get(0))));
+
+        List<OrderByRequest> orderBy = request.getOrderBy() != null ? request.getOrderBy() : List.of();
+        boolean aggregated = request.getAggregations() != null && !request.getAggregations().isEmpty();
+        if (!orderBy.isEmpty() && !aggregated
+                && orderBy.stream().map(OrderByRequest::isDescending).distinct().count() == 1) {
+            columnLists.add(concat(equality, orderBy.stream().map(OrderByRequest::getColumn).toList()));
+        }
+        if (aggregated && request.getColumns() != null && !request.getColumns().isEmpty()) {
+            columnLists.add(concat(equality, request.getColumns()));
+        }
+
+        return columnLists.stream()
+                .filter(columns -> !columns.isEmpty())
+                .filter(columns -> existing.stream().noneMatch(index -> startsWith(index, columns)))
+                .map(columns -> IndexDefinition.builder().columnNames(columns).indexType("btree").build())
+                .toList();
+    }
+
+    private IndexRecommendationDto weigh(JdbcTemplate jdbcTemplate, WorkloadRecorder.ShapeWorkload shape,
+                                         IndexDefinition candidate, boolean hypopg) {
+        SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
+        ParameterizedSql query = sqlBuilder.buildSelectQuerySql(shape.sample());
+        String schema = shape.schemaName();
+        String table = shape.tableName();
+
+        JsonNode before = explain(jdbcTemplate, query);
+        double costBefore = before.path("Total Cost").asDouble();
+        if (costBefore <= 0) {
+            return null;
+        }
+
+        Double costAfter = null;
+        double benefit;
+        if (hypopg) {
+            // Hypothetical indexes only exist in the session that created them.
+            String createIndex = sqlBuilder.buildCreateIndexSql(schema, table, candidate);
+            costAfter = jdbcTemplate.execute((ConnectionCallback<Double>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    try (PreparedStatement create = connection.prepareStatement("SELECT * FROM hypopg_create_index(?)")) {
+                        create.setString(1, createIndex);
+                        create.executeQuery().close();
+                        return explain(connection, query).path("Total Cost").asDouble();
+                    } finally {
+                        statement.execute("SELECT hypopg_reset()");
+                    }
+                }
+            });
+            benefit = 1 - costAfter / costBefore;
+        } else {
+            benefit = seqScanBenefit(jdbcTemplate, before, shape.sample(), candidate);
+        }
+        if (benefit < MIN_BENEFIT) {
+            return null;
+        }
+
+        IndexDefinitionDto index = tableMapper.toDto(candidate);
+        index.setName(sqlBuilder.buildIndexName(table, candidate));
+        return IndexRecommendationDto.builder()
+                .schemaName(schema)
+                .tableName(table)
+                .index(index)
+                .method(hypopg ? "HYPOPG" : "HEURISTIC")
+                .calls(shape.calls())
+                .meanMillis(shape.meanMillis())
+                .p95Millis(shape.p95Nanos() / 1_000_000.0)
+                .costBefore(costBefore)
+                .costAfter(costAfter)
+                .estimatedSavedMillis(TimeUnit.NANOSECONDS.toMillis(shape.totalNanos()) * benefit)
+                .exampleSql(query.getSql())
+                .build();
+    }
+
+    // Without hypopg: a seq-scanned table could skip the rows the candidate's own predicates filter out.
+    private double seqScanBenefit(JdbcTemplate jdbcTemplate, JsonNode plan, SelectQueryRequest sample, IndexDefinition candidate) {
+        String schema = sample.getSchemaName();
+        String table = sample.getTableName();
+        if (findSeqScan(plan, table) == null) {
+            return 0;
+        }
+        List<Double> tuples = jdbcTemplate.queryForList(RELATION_TUPLES_SQL, Double.class, schema, table);
+        double relationRows = tuples.isEmpty() || tuples.get(0) == null ? 0 : tuples.get(0);
+        if (relationRows <= 0) {
+            return 0; // never analysed, or empty
+        }
+        SelectQueryRequest restricted = restrictTo(sample, candidate.getColumnNames());
+        if (restricted.getFilters().isEmpty() && restricted.getWhere() == null) {
+            return 0;
+        }
+        JsonNode restrictedPlan = explain(jdbcTemplate, sqlBuilderFactory.getBuilder().buildSelectQuerySql(restricted));
+        double selectivity = Math.min(1, restrictedPlan.path("Plan Rows").asDouble() / relationRows);
+        return 1 - selectivity;
+    }
+
+    private static SelectQueryRequest restrictTo(SelectQueryRequest sample, List<String> columns) {
+        Map<String, Object> filters = new LinkedHashMap<>();
+        if (sample.getFilters() != null) {
+            sample.getFilters().forEach((column, value) -> {
+                if (columns.contains(column)) {
+                    filters.put(column, value);
+                }
+            });
+        }
+        List<FilterCondition> leaves = conjuncts(sample.getWhere()).stream()
+                .filter(leaf -> columns.contains(leaf.getColumn()))
+                .filter(leaf -> EQUALITY.contains(leaf.getOperator()) || RANGE.contains(leaf.getOperator()))
+                .toList();
+        FilterCondition where = switch (leaves.size()) {
+            case 0 -> null;
+            case 1 -> leaves.get(0);
+            default -> FilterCondition.builder().operator(FilterOperator.AND).conditions(leaves).build();
+        };
+        return SelectQueryRequest.builder()
+                .schemaName(sample.getSchemaName())
+                .tableName(sample.getTableName())
+                .filters(filters)
+                .where(where)
+                .build();
+    }
+
+    private JsonNode findSeqScan(JsonNode node, String table) {
+        if ("Seq Scan".equals(node.path("Node Type").asText()) && table.equals(node.path("Relation Name").asText())) {
+            return node;
+        }
+        for (JsonNode child : node.path("Plans")) {
+            JsonNode found = findSeqScan(child, table);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private JsonNode explain(JdbcTemplate jdbcTemplate, ParameterizedSql query) {
+        return jdbcTemplate.execute((ConnectionCallback<JsonNode>) connection -> explain(connection, query));
+    }
+
+    private JsonNode explain(Connection connection, ParameterizedSql query) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + query.getSql())) {
+            PostgresParameterBinder.bind(ps, query.parameterArray());
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return objectMapper.readTree(rs.getString(1)).path(0).path("Plan");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void merge(Map<String, IndexRecommendationDto> recommendations, IndexRecommendationDto weighed) {
+        String key = weighed.getSchemaName() + "." + weighed.getTableName() + weighed.getIndex().getColumnNames();
+        recommendations.merge(key, weighed, (first, next) -> {
+            // The first one comes from the hotter shape and keeps its plan figures.
+            first.setCalls(first.getCalls() + next.getCalls());
+            first.setEstimatedSavedMillis(first.getEstimatedSavedMillis() + next.getEstimatedSavedMillis());
+            return first;
+        });
+    }
+
+    private List<List<String>> existingIndexColumns(String schema, String table) {
+        try {
+            return tableMetadataService.getTableDefinition(schema, table, true).getIndexes().stream()
+                    .map(IndexDefinition::getColumnNames)
+                    .toList();
+        } catch (RuntimeException e) {
+            log.debug("No index metadata for {}.{}: {}", schema, table, e.getMessage());
+            return List.of();
+        }
+    }
+
+    // Anything under OR or NOT cannot drive an index scan on its own.
+    private static List<FilterCondition> conjuncts(FilterCondition where) {
+        List<FilterCondition> leaves = new ArrayList<>();
+        if (where == null || where.getOperator() == null) {
+            return leaves;
+        }
+        if (where.getOperator() == FilterOperator.AND) {
+            if (where.getConditions() != null) {
+                where.getConditions().forEach(child -> leaves.addAll(conjuncts(child)));
+            }
+        } else if (where.getColumn() != null) {
+            leaves.add(where);
+        }
+        return leaves;
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        LinkedHashSet<String> columns = new LinkedHashSet<>(first);
+        columns.addAll(second);
+        return columns.stream().limit(MAX_INDEX_COLUMNS).toList();
+    }
+
+    private static boolean startsWith(List<String> index, List<String> columns) {
+        return index != null && index.size() >= columns.size() && index.subList(0, columns.size()).equals(columns);
+    }
+}
@@ -0,0 +1,257 @@
+package com.builder.database.service;
+
+import com.builder.database.builder.SqlBuilder;
+import com.builder.database.builder.SqlBuilderFactory;
+import com.builder.database.config.IndexBuildProperties;
+import com.builder.database.config.WorkloadDataSources;
+import com.builder.database.dto.IndexBuildDto;
+import com.builder.database.dto.IndexDefinitionDto;
+import com.builder.database.mapper.TableMapper;
+import com.builder.database.model.IndexBuildStatus;
+import com.builder.database.model.IndexDefinition;
+import com.builder.database.model.Workload;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Online index builds (POST /indexes/{schema}/{table}/online) with CREATE INDEX CONCURRENTLY, run
+ * as background jobs whose progress comes from pg_stat_progress_create_index. A failed or
+ * interrupted build leaves an INVALID index, which is dropped.
+ */
+@Slf4j
+@Service
+public class IndexBuildService {
+
+    private static final String PROGRESS_SQL = """
+            SELECT phase, blocks_done, blocks_total, tuples_done, tuples_total
+            FROM pg_stat_progress_create_index
+            WHERE pid = ?
+            """;
+
+    private static final String INDEX_VALID_SQL = """
+            SELECT i.indisvalid
+            FROM pg_index i
+            JOIN pg_class c ON c.oid = i.indexrelid
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE n.nspname = ? AND c.relname = ?
+            """;
+
+    private final WorkloadDataSources workloadDataSources;
+    private final SqlBuilderFactory sqlBuilderFactory;
+    private final TableMapper tableMapper;
+    private final PartitionService partitionService;
+    private final TableMetadataService tableMetadataService;
+    private final AdmissionLimiter admissionLimiter;
+    private final IndexBuildProperties config;
+    private final ExecutorService builders;
+    private final Map<String, IndexBuildJob> jobs = new ConcurrentHashMap<>();
+
+    public IndexBuildService(WorkloadDataSources workloadDataSources,
+                             SqlBuilderFactory sqlBuilderFactory,
+                             TableMapper tableMapper,
+                             PartitionService partitionService,
+                             TableMetadataService tableMetadataService,
+                             AdmissionLimiter admissionLimiter,
+                             IndexBuildProperties config) {
+        this.workloadDataSources = workloadDataSources;
+        this.sqlBuilderFactory = sqlBuilderFactory;
+        this.tableMapper = tableMapper;
+        this.partitionService = partitionService;
+        this.tableMetadataService = tableMetadataService;
+        this.admissionLimiter = admissionLimiter;
+        this.config = config;
+        this.builders = Executors.newFixedThreadPool(Math.max(1, config.getThreads()),
+                new CustomizableThreadFactory("index-build-"));
+    }
+
+    public IndexBuildDto submit(String schema, String table, IndexDefinitionDto indexDto) {
+        if (partitionService.getPartitionSpec(schema, table).isPresent()) {
+            // Postgres cannot build an index concurrently on a partitioned table.
+            throw new IllegalArgumentException(schema + "." + table + " is partitioned; create the index with POST /indexes/{schema}/{table} instead");
+        }
+        SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
+        IndexDefinition index = tableMapper.toModel(indexDto);
+        String indexName = sqlBuilder.buildIndexName(table, index);
+        String sql = sqlBuilder.buildCreateIndexConcurrentlySql(schema, table, index);
+
+        IndexBuildJob job = new IndexBuildJob(UUID.randomUUID().toString(), schema, table, indexName, sql);
+        synchronized (jobs) {
+            boolean building = jobs.values().stream().anyMatch(other -> !other.isFinished()
+                    && other.schema.equals(schema) && other.indexName.equals(indexName));
+            if (building) {
+                throw new IllegalArgumentException("Index " + schema + "." + indexName + " is already being built");
+            }
+            pruneFinishedJobs();
+            jobs.put(job.id, job);
+        }
+        try {
+            builders.execute(() -> build(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        return toDto(job);
+    }
+
+    public IndexBuildDto getBuild(String id) {
+        IndexBuildJob job = jobs.get(id);
+        if (job == null) {
+            throw new IllegalArgumentException("Unknown index build " + id);
+        }
+        return toDto(job);
+    }
+
+    public List<IndexBuildDto> getBuilds() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((IndexBuildJob job) -> job.submittedAt).reversed())
+                .map(this::toDto)
+                .toList();
+    }
+
+    private void build(IndexBuildJob job) {
+        JdbcTemplate jdbcTemplate = workloadDataSources.jdbcTemplate(Workload.METADATA);
+        job.startedAt = Instant.now();
+        job.status = IndexBuildStatus.RUNNING;
+        // Held for the whole build, which keeps a metadata connection until its scans finish.
+        try (AdmissionLimiter.Permit ignored = admissionLimiter.acquire(Workload.METADATA)) {
+            // IF NOT EXISTS would accept a leftover INVALID index as done.
+            if (Boolean.FALSE.equals(indexValid(jdbcTemplate, job))) {
+                log.info("Dropping invalid index {}.{} left by an earlier build", job.schema, job.indexName);
+                dropIndex(jdbcTemplate, job);
+            }
+            // Same session for the pid lookup and the build, so progress can be matched to it.
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    try (ResultSet rs = statement.executeQuery("SELECT pg_backend_pid()")) {
+                        rs.next();
+                        job.pid = rs.getInt(1);
+                    }
+                    statement.execute(job.sql);
+                } finally {
+                    job.pid = 0;
+                }
+                return null;
+            });
+            tableMetadataService.evictTableDefinition(job.schema, job.table);
+            job.status = IndexBuildStatus.SUCCEEDED;
+            log.info("Built index {}.{} concurrently in {} ms", job.schema, job.indexName,
+                    Instant.now().toEpochMilli() - job.startedAt.toEpochMilli());
+        } catch (RuntimeException e) {
+            String error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            job.error = error + cleanUp(jdbcTemplate, job);
+            job.status = IndexBuildStatus.FAILED;
+            log.warn("Online build of index {}.{} failed: {}", job.schema, job.indexName, job.error);
+        } finally {
+            job.finishedAt = Instant.now();
+        }
+    }
+
+    private String cleanUp(JdbcTemplate jdbcTemplate, IndexBuildJob job) {
+        try {
+            if (Boolean.FALSE.equals(indexValid(jdbcTemplate, job))) {
+                dropIndex(jdbcTemplate, job);
+                return " (invalid index dropped)";
+            }
+            return "";
+        } catch (RuntimeException e) {
+            return " (invalid index could not be dropped: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage() + ")";
+        }
+    }
+
+    private Boolean indexValid(JdbcTemplate jdbcTemplate, IndexBuildJob job) {
+        List<Boolean> valid = jdbcTemplate.queryForList(INDEX_VALID_SQL, Boolean.class, job.schema, job.indexName);
+        return valid.isEmpty() ? null : valid.get(0);
+    }
+
+    private void dropIndex(JdbcTemplate jdbcTemplate, IndexBuildJob job) {
+        jdbcTemplate.execute(sqlBuilderFactory.getBuilder().buildDropIndexConcurrentlySql(job.schema, job.indexName));
+    }
+
+    private IndexBuildDto toDto(IndexBuildJob job) {
+        IndexBuildDto dto = IndexBuildDto.builder()
+                .id(job.id)
+                .schemaName(job.schema)
+                .tableName(job.table)
+                .indexName(job.indexName)
+                .status(job.status)
+                .error(job.error)
+                .submittedAt(job.submittedAt)
+                .startedAt(job.startedAt)
+                .finishedAt(job.finishedAt)
+                .build();
+        int pid = job.pid;
+        if (pid != 0) {
+            workloadDataSources.jdbcTemplate(Workload.METADATA).query(PROGRESS_SQL, rs -> {
+                dto.setPhase(rs.getString("phase"));
+                dto.setBlocksDone(rs.getLong("blocks_done"));
+                dto.setBlocksTotal(rs.getLong("blocks_total"));
+                dto.setTuplesDone(rs.getLong("tuples_done"));
+                dto.setTuplesTotal(rs.getLong("tuples_total"));
+                if (dto.getTuplesTotal() > 0) {
+                    dto.setProgress((double) dto.getTuplesDone() / dto.getTuplesTotal());
+                } else if (dto.getBlocksTotal() > 0) {
+                    dto.setProgress((double) dto.getBlocksDone() / dto.getBlocksTotal());
+                }
+            }, pid);
+        }
+        return dto;
+    }
+
+    private void pruneFinishedJobs() {
+        List<IndexBuildJob> finished = jobs.values().stream()
+                .filter(IndexBuildJob::isFinished)
+                .sorted(Comparator.comparing((IndexBuildJob job) -> job.finishedAt))
+                .toList();
+        for (int i = 0; i < finished.size() - config.getRetainedJobs() + 1; i++) {
+            jobs.remove(finished.get(i).id);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builders.shutdownNow();
+    }
+
+    private static final class IndexBuildJob {
+        private final String id;
+        private final String schema;
+        private final String table;
+        private final String indexName;
+        private final String sql;
+        private final Instant submittedAt = Instant.now();
+        private volatile IndexBuildStatus status = IndexBuildStatus.PENDING;
+        private volatile int pid;
+        private volatile String error;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+
+        private IndexBuildJob(String id, String schema, String table, String indexName, String sql) {
+            this.id = id;
+            this.schema = schema;
+            this.table = table;
+            this.indexName = indexName;
+            this.sql = sql;
+        }
+
+        private boolean isFinished() {
+            return finishedAt != null;
+        }
+    }
+}
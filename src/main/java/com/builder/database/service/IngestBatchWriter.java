@@ -0,0 +1,65 @@
+package com.builder.database.service;
+
+import com.builder.database.config.WorkloadDataSources;
+import com.builder.database.config.errors.BackpressureException;
+import com.builder.database.model.IngestChunk;
+import com.builder.database.model.IngestMode;
+import com.builder.database.model.Workload;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Group commit for acknowledged-but-unwritten rows: every chunk of a batch lands in one ingest
+ * transaction. Used by the in-memory async buffer and by the spool drainer.
+ */
+@Component
+@RequiredArgsConstructor
+public class IngestBatchWriter {
+
+    private final TableService tableService;
+    private final WorkloadDataSources workloadDataSources;
+    private final AdmissionLimiter admissionLimiter;
+
+    // Grouped first, since each insert statement or COPY stream takes its column list from one row.
+    public void commit(List<IngestChunk> chunks) {
+        Map<GroupKey, List<Map<String, String>>> groups = new LinkedHashMap<>();
+        for (IngestChunk chunk : chunks) {
+            for (Map<String, String> row : chunk.getRows()) {
+                GroupKey key = new GroupKey(chunk.getSchemaName(), chunk.getTableName(), chunk.getMode(), new HashSet<>(row.keySet()));
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        // Admitted before the transaction takes its connection, so the nested insertRows calls cannot
+        // wait on a permit while holding one of the pool's connections.
+        try (AdmissionLimiter.Permit ignored = admissionLimiter.acquire(Workload.INGEST)) {
+            workloadDataSources.transactionTemplate(Workload.INGEST).executeWithoutResult(status ->
+                    groups.forEach((key, rows) -> tableService.insertRows(key.schema(), key.table(), rows, key.mode())));
+        }
+    }
+
+    public static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BackpressureException || cause instanceof CannotGetJdbcConnectionException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                String state = sqlException.getSQLState();
+                return state.startsWith("08") || state.equals("40001") || state.equals("40P01");
+            }
+        }
+        return false;
+    }
+
+    private record GroupKey(String schema, String table, IngestMode mode, Set<String> columns) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.builder.database.service;
+
+import com.builder.database.config.IngestProperties;
+import com.builder.database.metrics.IngestMetrics;
+import com.builder.database.model.IngestChunk;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Where async and spooled appends go when they cannot be committed: rejected for their content,
+ * or still failing after max-attempts. One JSON chunk per line, in a file per UTC day, fsynced
+ * before the caller moves on; the lines can be posted back to /insert once the cause is fixed.
+ */
+@Slf4j
+@Component
+public class IngestDeadLetters {
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final IngestMetrics ingestMetrics;
+
+    public IngestDeadLetters(IngestProperties ingestProperties, ObjectMapper objectMapper, IngestMetrics ingestMetrics) {
+        this.directory = Path.of(ingestProperties.getDeadLetterDirectory());
+        this.objectMapper = objectMapper;
+        this.ingestMetrics = ingestMetrics;
+    }
+
+    public synchronized void write(List<IngestChunk> chunks, String reason) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (IngestChunk chunk : chunks) {
+            lines.write(objectMapper.writeValueAsBytes(chunk));
+            lines.write('\n');
+        }
+        Files.createDirectories(directory);
+        Path file = directory.resolve("dead-letter-" + LocalDate.now(ZoneOffset.UTC) + ".jsonl");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        for (IngestChunk chunk : chunks) {
+            log.error("Dead-lettered {} rows for {}.{} to {}: {}",
+                    chunk.getRows().size(), chunk.getSchemaName(), chunk.getTableName(), file, reason);
+            ingestMetrics.recordDropped(chunk.getSchemaName(), chunk.getTableName(), chunk.getRows().size());
+        }
+    }
+}
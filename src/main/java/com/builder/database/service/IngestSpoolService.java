@@ -0,0 +1,164 @@
+package com.builder.database.service;
+
+import com.builder.database.config.IngestProperties;
+import com.builder.database.config.errors.BackpressureException;
+import com.builder.database.config.errors.DatabaseOperationException;
+import com.builder.database.dto.AsyncInsertResultDto;
+import com.builder.database.metrics.IngestMetrics;
+import com.builder.database.model.IngestChunk;
+import com.builder.database.model.IngestMode;
+import com.builder.database.spool.IngestSpool;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Durable variant of the async ingest path. Each append is fsynced to the local spool before it
+ * is acknowledged, and a drainer replays the spool into the database in group-committed batches,
+ * checkpointing after each commit. Rows survive database outages and process restarts; a crash
+ * between a commit and its checkpoint replays that batch again, so delivery is at-least-once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "builder.ingest.spool", name = "enabled", havingValue = "true")
+public class IngestSpoolService {
+
+    private final IngestSpool spool;
+    private final IngestBatchWriter batchWriter;
+    private final IngestDeadLetters deadLetters;
+    private final IngestProperties.Spool config;
+    private final IngestMetrics ingestMetrics;
+    private final ObjectMapper objectMapper;
+    private volatile long retryAt;
+    private int attempts;
+
+    public IngestSpoolService(IngestBatchWriter batchWriter,
+                              IngestDeadLetters deadLetters,
+                              IngestProperties ingestProperties,
+                              IngestMetrics ingestMetrics,
+                              ObjectMapper objectMapper) throws IOException {
+        this.batchWriter = batchWriter;
+        this.deadLetters = deadLetters;
+        this.config = ingestProperties.getSpool();
+        this.ingestMetrics = ingestMetrics;
+        this.objectMapper = objectMapper;
+        this.spool = new IngestSpool(Path.of(config.getDirectory()), config.getSegmentBytes(),
+                config.getSyncInterval().toNanos());
+
+        ingestMetrics.registerSpoolGauge(spool, IngestSpool::pendingBytes);
+        if (spool.pendingBytes() > 0) {
+            log.info("Ingest spool {} has {} bytes to replay", config.getDirectory(), spool.pendingBytes());
+        }
+    }
+
+    public AsyncInsertResultDto append(String schema, String table, List<Map<String, String>> rows, IngestMode mode) {
+        if (spool.pendingBytes() > config.getMaxPendingBytes()) {
+            ingestMetrics.recordRejected(schema, table, rows.size());
+            throw new BackpressureException("Ingest spool holds more than " + config.getMaxPendingBytes() + " unreplayed bytes");
+        }
+
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(IngestChunk.builder()
+                    .schemaName(schema)
+                    .tableName(table)
+                    .mode(mode)
+                    .rows(rows)
+                    .build());
+            spool.append(payload);
+        } catch (IOException e) {
+            throw new DatabaseOperationException("Failed to spool rows for " + schema + "." + table, e);
+        }
+
+        return AsyncInsertResultDto.builder()
+                .schemaName(schema)
+                .tableName(table)
+                .acceptedRows(rows.size())
+                .durable(true)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${builder.ingest.spool.drain-interval:200ms}")
+    public void drain() {
+        if (System.currentTimeMillis() < retryAt) {
+            return;
+        }
+        try {
+            List<IngestSpool.Entry> entries;
+            while (!(entries = spool.read(spool.checkpoint(), config.getDrainBatchBytes())).isEmpty()) {
+                if (!replay(entries)) {
+                    retryAt = System.currentTimeMillis() + config.getRetryInterval().toMillis();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read the ingest spool: {}", e.getMessage(), e);
+            retryAt = System.currentTimeMillis() + config.getRetryInterval().toMillis();
+        }
+    }
+
+    private boolean replay(List<IngestSpool.Entry> entries) throws IOException {
+        List<IngestChunk> chunks = new ArrayList<>(entries.size());
+        for (IngestSpool.Entry entry : entries) {
+            chunks.add(objectMapper.readValue(entry.payload(), IngestChunk.class));
+        }
+
+        try {
+            batchWriter.commit(chunks);
+        } catch (RuntimeException e) {
+            if (IngestBatchWriter.isTransient(e)) {
+                return retryOrDeadLetter(entries, chunks, e);
+            }
+            return replayIndividually(entries, chunks);
+        }
+        spool.checkpoint(entries.get(entries.size() - 1).nextOffset());
+        ingestMetrics.recordSpoolReplay(entries.size(), rowCount(chunks));
+        attempts = 0;
+        return true;
+    }
+
+    private boolean retryOrDeadLetter(List<IngestSpool.Entry> entries, List<IngestChunk> chunks, RuntimeException e) throws IOException {
+        if (++attempts < config.getMaxAttempts()) {
+            log.warn("Spool replay paused (attempt {} of {}): {}", attempts, config.getMaxAttempts(), e.getMessage());
+            return false;
+        }
+        deadLetters.write(chunks, "still failing after " + config.getMaxAttempts() + " attempts: " + e.getMessage());
+        spool.checkpoint(entries.get(entries.size() - 1).nextOffset());
+        attempts = 0;
+        return true;
+    }
+
+    private boolean replayIndividually(List<IngestSpool.Entry> entries, List<IngestChunk> chunks) throws IOException {
+        for (int i = 0; i < entries.size(); i++) {
+            IngestChunk chunk = chunks.get(i);
+            try {
+                batchWriter.commit(List.of(chunk));
+                ingestMetrics.recordSpoolReplay(1, chunk.getRows().size());
+            } catch (RuntimeException e) {
+                if (IngestBatchWriter.isTransient(e)) {
+                    return retryOrDeadLetter(entries.subList(i, entries.size()), chunks.subList(i, chunks.size()), e);
+                }
+                deadLetters.write(List.of(chunk), e.getMessage());
+            }
+            spool.checkpoint(entries.get(i).nextOffset());
+        }
+        return true;
+    }
+
+    private static long rowCount(List<IngestChunk> chunks) {
+        return chunks.stream().mapToLong(chunk -> chunk.getRows().size()).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        spool.close();
+    }
+}
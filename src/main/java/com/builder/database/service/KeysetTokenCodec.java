@@ -0,0 +1,66 @@
+package com.builder.database.service;
+
+import com.builder.database.model.OrderByRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the last-seen sort key of a page as an opaque, URL-safe token. Values are kept
+ * in their text form so the next query can compare them as untyped literals, and the
+ * sort order is embedded so a token cannot be replayed against a different ordering.
+ */
+@Component
+@RequiredArgsConstructor
+public class KeysetTokenCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public String encode(List<OrderByRequest> orderBy, Map<String, Object> lastRow) {
+        List<String> values = new ArrayList<>();
+        for (OrderByRequest key : orderBy) {
+            Object value = lastRow.get(key.getColumn());
+            if (value == null) {
+                throw new IllegalArgumentException("Sort column " + key.getColumn()
+                        + " returned NULL; keyset pagination requires non-null sort keys");
+            }
+            values.add(value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString());
+        }
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new KeysetToken(describe(orderBy), values));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode page token", e);
+        }
+    }
+
+    public List<Object> decode(String pageToken, List<OrderByRequest> orderBy) {
+        KeysetToken token;
+        try {
+            token = objectMapper.readValue(Base64.getUrlDecoder().decode(pageToken), KeysetToken.class);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Malformed page token", e);
+        }
+
+        if (!describe(orderBy).equals(token.order()) || token.values().size() != orderBy.size()) {
+            throw new IllegalArgumentException("Page token does not match the requested sort order");
+        }
+        return new ArrayList<>(token.values());
+    }
+
+    private List<String> describe(List<OrderByRequest> orderBy) {
+        return orderBy.stream()
+                .map(o -> o.getColumn() + (o.isDescending() ? ":DESC" : ":ASC"))
+                .toList();
+    }
+
+    record KeysetToken(List<String> order, List<String> values) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.builder.database.service;
+
+import com.builder.database.entity.PartitionMetadata;
+import com.builder.database.model.PartitionStrategy;
+import com.builder.database.repository.PartitionMetadataRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically runs partition maintenance for every RANGE-partitioned table, so future
+ * partitions exist before rows for them arrive and expired ones are detached.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "builder.partition", name = "maintenance-enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenanceScheduler {
+
+    private final PartitionService partitionService;
+    private final PartitionMetadataRepository partitionMetadataRepository;
+
+    @Scheduled(initialDelayString = "0s", fixedDelayString = "${builder.partition.maintenance-interval:1h}")
+    public void maintain() {
+        for (PartitionMetadata table : partitionMetadataRepository.findByStrategy(PartitionStrategy.RANGE.name())) {
+            try {
+                int changed = partitionService.maintainPartitions(table.getSchemaName(), table.getTableName());
+                if (changed > 0) {
+                    log.info("Partition maintenance changed {} partitions of {}.{}", changed, table.getSchemaName(), table.getTableName());
+                }
+            } catch (Exception e) {
+                log.warn("Partition maintenance failed for {}.{}: {}", table.getSchemaName(), table.getTableName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.builder.database.service;
+
+import com.builder.database.dto.PartitionInfoDto;
+import com.builder.database.model.PartitionSpec;
+import com.builder.database.model.TableDefinitionRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PartitionService {
+    void preparePartitioning(TableDefinitionRequest request);
+    void registerPartitioning(TableDefinitionRequest request);
+    Optional<PartitionSpec> getPartitionSpec(String schemaName, String tableName);
+    List<PartitionInfoDto> getPartitions(String schemaName, String tableName);
+    int maintainPartitions(String schemaName, String tableName);
+    void detachPartition(String schemaName, String tableName, String partitionName, boolean drop);
+}
@@ -0,0 +1,251 @@
+package com.builder.database.service;
+
+import com.builder.database.builder.PartitionLayout;
+import com.builder.database.builder.SqlBuilder;
+import com.builder.database.builder.SqlBuilderFactory;
+import com.builder.database.config.PartitionProperties;
+import com.builder.database.config.WorkloadDataSources;
+import com.builder.database.config.errors.DatabaseOperationException;
+import com.builder.database.dto.PartitionInfoDto;
+import com.builder.database.entity.PartitionMetadata;
+import com.builder.database.model.ColumnDefinition;
+import com.builder.database.model.PartitionInterval;
+import com.builder.database.model.PartitionSpec;
+import com.builder.database.model.PartitionStrategy;
+import com.builder.database.model.TableDefinitionRequest;
+import com.builder.database.model.Workload;
+import com.builder.database.repository.PartitionMetadataRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Keeps RANGE-partitioned tables ahead of the clock and within retention. Periods are computed
+ * in UTC; expired partitions are detached (a metadata-only change) and optionally dropped,
+ * which is far cheaper than deleting their rows.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionServiceImpl implements PartitionService {
+
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT c.relname AS partition_name, pg_get_expr(c.relpartbound, c.oid) AS bound
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            JOIN pg_namespace n ON n.oid = p.relnamespace
+            WHERE n.nspname = ? AND p.relname = ?
+            ORDER BY c.relname
+            """;
+
+    private static final String DEFAULT_BOUND = "DEFAULT";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WorkloadDataSources workloadDataSources;
+    private final SqlBuilderFactory sqlBuilderFactory;
+    private final PartitionMetadataRepository partitionMetadataRepository;
+    private final PartitionProperties partitionProperties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void preparePartitioning(TableDefinitionRequest request) {
+        PartitionSpec spec = request.getPartition();
+        if (spec == null) {
+            return;
+        }
+
+        Optional<String> columnType = request.getColumns().stream()
+                .filter(col -> col.getName().equals(spec.getColumn()))
+                .map(ColumnDefinition::getType)
+                .findFirst()
+                .or(() -> "lastUpdateDate".equals(spec.getColumn()) ? Optional.of("TIMESTAMP") : Optional.empty());
+        if (columnType.isEmpty()) {
+            throw new IllegalArgumentException("Unknown partition column " + spec.getColumn());
+        }
+
+        switch (spec.getStrategy()) {
+            case RANGE -> {
+                if (spec.getInterval() == null) {
+                    throw new IllegalArgumentException("RANGE partitioning needs an interval (DAY, WEEK, MONTH or YEAR)");
+                }
+                String type = columnType.get().toLowerCase();
+                if (!type.contains("date") && !type.contains("timestamp")) {
+                    throw new IllegalArgumentException("RANGE partitions are calendar periods; " + spec.getColumn() + " is " + type);
+                }
+                if (spec.getPremake() == null) {
+                    spec.setPremake(partitionProperties.getDefaultPremake());
+                }
+            }
+            case LIST -> {
+                if (spec.getListValues() == null || spec.getListValues().isEmpty()) {
+                    throw new IllegalArgumentException("LIST partitioning needs listValues");
+                }
+                spec.getListValues().forEach((suffix, values) -> {
+                    if (!suffix.matches("\\w+") || values == null || values.isEmpty()) {
+                        throw new IllegalArgumentException("LIST partition " + suffix + " needs a word-character name and values");
+                    }
+                });
+            }
+            case HASH -> {
+                if (spec.getModulus() == null || spec.getModulus() < 2) {
+                    throw new IllegalArgumentException("HASH partitioning needs a modulus of at least 2");
+                }
+            }
+        }
+    }
+
+    @Override
+    public void registerPartitioning(TableDefinitionRequest request) {
+        PartitionSpec spec = request.getPartition();
+        PartitionMetadata metadata = partitionMetadataRepository
+                .findBySchemaNameAndTableName(request.getSchemaName(), request.getTableName())
+                .orElseGet(PartitionMetadata::new);
+
+        metadata.setSchemaName(request.getSchemaName());
+        metadata.setTableName(request.getTableName());
+        metadata.setStrategy(spec.getStrategy().name());
+        metadata.setPartitionColumn(spec.getColumn());
+        metadata.setRangeInterval(spec.getInterval() != null ? spec.getInterval().name() : null);
+        metadata.setPremake(spec.getPremake());
+        metadata.setRetention(spec.getRetention());
+        metadata.setDropOnRetention(spec.isDropOnRetention());
+        metadata.setListValuesJson(spec.getListValues() != null ? writeJson(spec.getListValues()) : null);
+        metadata.setModulus(spec.getModulus());
+        partitionMetadataRepository.save(metadata);
+    }
+
+    @Override
+    public Optional<PartitionSpec> getPartitionSpec(String schema, String table) {
+        return partitionMetadataRepository.findBySchemaNameAndTableName(schema, table).map(this::toModel);
+    }
+
+    @Override
+    public List<PartitionInfoDto> getPartitions(String schema, String table) {
+        return jdbcTemplate.query(LIST_PARTITIONS_SQL, (rs, rowNum) -> PartitionInfoDto.builder()
+                .name(rs.getString("partition_name"))
+                .bound(rs.getString("bound"))
+                .build(), schema, table);
+    }
+
+    @Override
+    public int maintainPartitions(String schema, String table) {
+        PartitionSpec spec = getPartitionSpec(schema, table)
+                .orElseThrow(() -> new IllegalArgumentException("No partition spec for " + schema + "." + table));
+        if (spec.getStrategy() != PartitionStrategy.RANGE) {
+            return 0;
+        }
+
+        SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
+        PartitionInterval interval = spec.getInterval();
+        LocalDate current = interval.periodStart(LocalDate.now(ZoneOffset.UTC));
+        Set<String> existing = new HashSet<>(getPartitions(schema, table).stream().map(PartitionInfoDto::getName).toList());
+        int changed = 0;
+
+        int premake = spec.getPremake() != null ? spec.getPremake() : partitionProperties.getDefaultPremake();
+        for (int i = 0; i <= premake; i++) {
+            LocalDate period = interval.plus(current, i);
+            if (existing.contains(PartitionLayout.rangePartitionName(table, period))) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute(sqlBuilder.buildCreateRangePartitionSql(schema, table, interval, period));
+                changed++;
+            } catch (DataAccessException e) {
+                // Typically rows for this period already sit in the default partition.
+                log.info("Moving rows for {} out of the default partition of {}.{}: {}", period, schema, table, e.getMessage());
+                try {
+                    List<String> statements = sqlBuilder.buildSplitDefaultPartitionSql(schema, table, spec.getColumn(), interval, period);
+                    workloadDataSources.transactionTemplate(Workload.METADATA)
+                            .executeWithoutResult(status -> statements.forEach(jdbcTemplate::execute));
+                    changed++;
+                } catch (RuntimeException moveFailure) {
+                    log.error("Could not create partition for {} on {}.{}; its rows stay in the default partition: {}",
+                            period, schema, table, moveFailure.getMessage());
+                }
+            }
+        }
+
+        if (spec.getRetention() != null) {
+            LocalDate cutoff = interval.plus(current, -spec.getRetention());
+            for (String partition : existing) {
+                Optional<LocalDate> start = PartitionLayout.rangePeriodStart(table, partition);
+                if (start.isPresent() && !interval.next(start.get()).isAfter(cutoff)) {
+                    detachPartition(schema, table, partition, spec.isDropOnRetention());
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void detachPartition(String schema, String table, String partition, boolean drop) {
+        List<PartitionInfoDto> partitions = getPartitions(schema, table);
+        if (partitions.stream().noneMatch(p -> p.getName().equals(partition))) {
+            throw new IllegalArgumentException(partition + " is not a partition of " + schema + "." + table);
+        }
+
+        // Runs in autocommit: CONCURRENTLY cannot be used inside a transaction block, nor while a default partition exists.
+        SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
+        boolean concurrently = partitions.stream().noneMatch(p -> DEFAULT_BOUND.equals(p.getBound()));
+        if (concurrently) {
+            detachConcurrently(sqlBuilder, schema, table, partition);
+        } else {
+            jdbcTemplate.execute(sqlBuilder.buildDetachPartitionSql(schema, table, partition, false));
+        }
+        if (drop) {
+            jdbcTemplate.execute(sqlBuilder.buildDropTableSql(schema, partition));
+        }
+        log.info("{} partition {} of {}.{}", drop ? "Dropped" : "Detached", partition, schema, table);
+    }
+
+    // A concurrent detach interrupted after its first transaction leaves the partition pending until FINALIZE.
+    private void detachConcurrently(SqlBuilder sqlBuilder, String schema, String table, String partition) {
+        try {
+            jdbcTemplate.execute(sqlBuilder.buildDetachPartitionSql(schema, table, partition, true));
+        } catch (DataAccessException e) {
+            try {
+                jdbcTemplate.execute(sqlBuilder.buildFinalizeDetachPartitionSql(schema, table, partition));
+            } catch (DataAccessException finalizeFailure) {
+                throw e;
+            }
+        }
+    }
+
+    private PartitionSpec toModel(PartitionMetadata metadata) {
+        try {
+            return PartitionSpec.builder()
+                    .strategy(PartitionStrategy.valueOf(metadata.getStrategy()))
+                    .column(metadata.getPartitionColumn())
+                    .interval(metadata.getRangeInterval() != null ? PartitionInterval.valueOf(metadata.getRangeInterval()) : null)
+                    .premake(metadata.getPremake())
+                    .retention(metadata.getRetention())
+                    .dropOnRetention(metadata.isDropOnRetention())
+                    .listValues(metadata.getListValuesJson() != null
+                            ? objectMapper.readValue(metadata.getListValuesJson(), new TypeReference<Map<String, List<String>>>() {})
+                            : null)
+                    .modulus(metadata.getModulus())
+                    .build();
+        } catch (Exception e) {
+            throw new DatabaseOperationException("Failed to read partition spec of "
+                    + metadata.getSchemaName() + "." + metadata.getTableName(), e);
+        }
+    }
+
+    private String writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new DatabaseOperationException("Failed to write partition spec", e);
+        }
+    }
+}
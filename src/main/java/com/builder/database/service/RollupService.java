@@ -0,0 +1,18 @@
+package com.builder.database.service;
+
+import com.builder.database.dto.RollupDefinitionDto;
+import com.builder.database.model.RollupDefinition;
+import com.builder.database.model.SelectQueryRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface RollupService {
+    RollupDefinitionDto createRollup(String schemaName, String tableName, RollupDefinitionDto rollup);
+    List<RollupDefinitionDto> getRollups(String schemaName, String tableName);
+    int rebuildRollup(String schemaName, String tableName, String rollupName);
+    void dropRollup(String schemaName, String tableName, String rollupName);
+    List<RollupDefinition> getRollupDefinitions(String schemaName, String tableName);
+    Optional<RollupDefinition> findRollupFor(SelectQueryRequest request);
+    void markStale(String schemaName, String tableName);
+}
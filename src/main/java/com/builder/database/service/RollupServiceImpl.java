@@ -0,0 +1,286 @@
+package com.builder.database.service;
+
+import com.builder.database.builder.RollupLayout;
+import com.builder.database.builder.SqlBuilder;
+import com.builder.database.builder.SelectShape;
+import com.builder.database.builder.SqlBuilderFactory;
+import com.builder.database.config.SelectProperties;
+import com.builder.database.config.errors.DatabaseOperationException;
+import com.builder.database.dto.AggregationRequestDto;
+import com.builder.database.dto.RollupDefinitionDto;
+import com.builder.database.entity.RollupMetadata;
+import com.builder.database.mapper.TableMapper;
+import com.builder.database.model.AggregationRequest;
+import com.builder.database.model.ColumnDefinition;
+import com.builder.database.model.FilterCondition;
+import com.builder.database.model.RollupDefinition;
+import com.builder.database.model.SelectQueryRequest;
+import com.builder.database.model.TableDefinitionRequest;
+import com.builder.database.repository.RollupMetadataRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rollups are summary tables kept current by APPEND flushes, which fold each moved batch into
+ * them in the flush statement itself. Writes that change existing rows (MERGE flushes, direct
+ * inserts into the actual table) mark them stale instead; stale rollups are skipped by select
+ * routing until rebuilt.
+ */
+@Slf4j
+@Service
+public class RollupServiceImpl implements RollupService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SqlBuilderFactory sqlBuilderFactory;
+    private final RollupMetadataRepository rollupMetadataRepository;
+    private final TableMetadataService tableMetadataService;
+    private final TableMapper tableMapper;
+    private final ObjectMapper objectMapper;
+    private final Cache<SelectShape, Optional<RollupDefinition>> matches;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public RollupServiceImpl(JdbcTemplate jdbcTemplate,
+                             SqlBuilderFactory sqlBuilderFactory,
+                             RollupMetadataRepository rollupMetadataRepository,
+                             TableMetadataService tableMetadataService,
+                             TableMapper tableMapper,
+                             ObjectMapper objectMapper,
+                             SelectProperties selectProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sqlBuilderFactory = sqlBuilderFactory;
+        this.rollupMetadataRepository = rollupMetadataRepository;
+        this.tableMetadataService = tableMetadataService;
+        this.tableMapper = tableMapper;
+        this.objectMapper = objectMapper;
+        this.matches = Caffeine.newBuilder()
+                .maximumSize(selectProperties.getRollupRouting().getMaxShapes())
+                .expireAfterWrite(selectProperties.getRollupRouting().getTtl())
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public RollupDefinitionDto createRollup(String schema, String table, RollupDefinitionDto dto) {
+        RollupDefinition rollup = tableMapper.toModel(schema, table, dto);
+        TableDefinitionRequest def = tableMetadataService.getTableDefinition(schema, table, false);
+        if (def.isTemporaryWriteTable()) {
+            throw new IllegalArgumentException("Rollups need the actual table " + schema + "." + table);
+        }
+        validate(rollup, def);
+
+        if (rollupMetadataRepository.findBySchemaNameAndTableNameAndRollupName(schema, table, rollup.getName()).isPresent()) {
+            throw new IllegalArgumentException("Rollup " + rollup.getName() + " already exists on " + schema + "." + table);
+        }
+        rollupMetadataRepository.save(RollupMetadata.builder()
+                .schemaName(schema)
+                .tableName(table)
+                .rollupName(rollup.getName())
+                .groupColumnsJson(writeJson(rollup.getGroupBy()))
+                .aggregationsJson(writeJson(tableMapper.toDtoAggregations(rollup.getAggregations())))
+                .stale(false)
+                .build());
+
+        SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
+        jdbcTemplate.execute(sqlBuilder.buildCreateRollupTableSql(def, rollup));
+        int groups = populate(sqlBuilder, rollup);
+        invalidateMatches(schema, table);
+
+        log.info("Created rollup {} on {}.{} with {} groups", rollup.getName(), schema, table, groups);
+        return tableMapper.toDto(rollup);
+    }
+
+    @Override
+    public List<RollupDefinitionDto> getRollups(String schema, String table) {
+        return getRollupDefinitions(schema, table).stream()
+                .map(tableMapper::toDto)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public int rebuildRollup(String schema, String table, String rollupName) {
+        RollupMetadata metadata = findMetadata(schema, table, rollupName);
+        int groups = populate(sqlBuilderFactory.getBuilder(), toModel(metadata));
+
+        metadata.setStale(false);
+        rollupMetadataRepository.save(metadata);
+        invalidateMatches(schema, table);
+
+        log.info("Rebuilt rollup {} on {}.{} with {} groups", rollupName, schema, table, groups);
+        return groups;
+    }
+
+    @Override
+    @Transactional
+    public void dropRollup(String schema, String table, String rollupName) {
+        RollupMetadata metadata = findMetadata(schema, table, rollupName);
+        rollupMetadataRepository.delete(metadata);
+        jdbcTemplate.execute(sqlBuilderFactory.getBuilder().buildDropRollupTableSql(toModel(metadata)));
+        invalidateMatches(schema, table);
+    }
+
+    @Override
+    public List<RollupDefinition> getRollupDefinitions(String schema, String table) {
+        return rollupMetadataRepository.findBySchemaNameAndTableName(schema, table).stream()
+                .map(this::toModel)
+                .toList();
+    }
+
+    @Override
+    public Optional<RollupDefinition> findRollupFor(SelectQueryRequest request) {
+        if (request.getAggregations() == null || request.getAggregations().isEmpty()) {
+            return Optional.empty();
+        }
+
+        SelectShape shape = sqlBuilderFactory.getBuilder().buildSelectShape(request);
+        Optional<RollupDefinition> cached = matches.getIfPresent(shape);
+        if (cached != null) {
+            return cached;
+        }
+        AtomicLong generation = generation(request.getSchemaName(), request.getTableName());
+        long seen = generation.get();
+        Optional<RollupDefinition> match = matchRollup(request);
+        if (generation.get() == seen) {
+            matches.put(shape, match);
+        }
+        return match;
+    }
+
+    private Optional<RollupDefinition> matchRollup(SelectQueryRequest request) {
+
+        Set<RollupLayout.Measure> needed = new HashSet<>();
+        for (AggregationRequest agg : request.getAggregations()) {
+            List<RollupLayout.Measure> measures = RollupLayout.measuresFor(agg);
+            if (measures == null) {
+                return Optional.empty();
+            }
+            needed.addAll(measures);
+        }
+
+        Set<String> referenced = new HashSet<>();
+        if (request.getColumns() != null) referenced.addAll(request.getColumns());
+        if (request.getFilters() != null) referenced.addAll(request.getFilters().keySet());
+        if (request.getWhere() != null) collectFilterColumns(request.getWhere(), referenced);
+
+        return getRollupDefinitions(request.getSchemaName(), request.getTableName()).stream()
+                .filter(rollup -> !rollup.isStale())
+                .filter(rollup -> rollup.getGroupBy().containsAll(referenced))
+                .filter(rollup -> RollupLayout.measures(rollup).containsAll(needed))
+                .min(Comparator.comparingInt(rollup -> rollup.getGroupBy().size()));
+    }
+
+    // Its own transaction, so it also commits when called once a caller's transaction has completed.
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markStale(String schema, String table) {
+        if (rollupMetadataRepository.markStale(schema, table) > 0) {
+            invalidateMatches(schema, table);
+            log.info("Rollups on {}.{} marked stale; selects use the raw table until rebuilt", schema, table);
+        }
+    }
+
+    // After completion, so no other session re-caches the old match.
+    private void invalidateMatches(String schema, String table) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clearMatches(schema, table);
+                }
+            });
+        } else {
+            clearMatches(schema, table);
+        }
+    }
+
+    // Bumping the generation first keeps a lookup that raced the change from caching its result.
+    private void clearMatches(String schema, String table) {
+        generation(schema, table).incrementAndGet();
+        matches.asMap().keySet().removeIf(shape -> shape.schemaName().equals(schema) && shape.tableName().equals(table));
+    }
+
+    private AtomicLong generation(String schema, String table) {
+        return generations.computeIfAbsent(schema + "." + table, key -> new AtomicLong());
+    }
+
+    // The SHARE lock waits for in-flight flushes and blocks new ones, so no batch is missed or counted twice.
+    private int populate(SqlBuilder sqlBuilder, RollupDefinition rollup) {
+        jdbcTemplate.execute(sqlBuilder.buildLockTableSql(rollup.getSchemaName(), rollup.getTableName(), "SHARE"));
+        List<String> statements = sqlBuilder.buildRebuildRollupSql(rollup);
+        jdbcTemplate.execute(statements.get(0));
+        return jdbcTemplate.update(statements.get(1));
+    }
+
+    private void validate(RollupDefinition rollup, TableDefinitionRequest def) {
+        Set<String> columns = new HashSet<>(def.getColumns().stream().map(ColumnDefinition::getName).toList());
+
+        if (new HashSet<>(rollup.getGroupBy()).size() != rollup.getGroupBy().size()) {
+            throw new IllegalArgumentException("Rollup group-by columns must be distinct");
+        }
+        rollup.getGroupBy().stream()
+                .filter(col -> !columns.contains(col))
+                .findFirst()
+                .ifPresent(col -> {
+                    throw new IllegalArgumentException("Unknown group-by column " + col + " on " + def.getTableName());
+                });
+        for (AggregationRequest agg : rollup.getAggregations()) {
+            if (agg.getColumn() != null && !agg.getColumn().equals("*") && !columns.contains(agg.getColumn())) {
+                throw new IllegalArgumentException("Unknown aggregation column " + agg.getColumn() + " on " + def.getTableName());
+            }
+        }
+        RollupLayout.measures(rollup);
+    }
+
+    private void collectFilterColumns(FilterCondition filter, Set<String> columns) {
+        if (filter.getColumn() != null) {
+            columns.add(filter.getColumn());
+        }
+        if (filter.getConditions() != null) {
+            filter.getConditions().forEach(child -> collectFilterColumns(child, columns));
+        }
+    }
+
+    private RollupMetadata findMetadata(String schema, String table, String rollupName) {
+        return rollupMetadataRepository.findBySchemaNameAndTableNameAndRollupName(schema, table, rollupName)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No rollup " + rollupName + " on " + schema + "." + table));
+    }
+
+    private RollupDefinition toModel(RollupMetadata metadata) {
+        try {
+            List<String> groupBy = objectMapper.readValue(metadata.getGroupColumnsJson(), new TypeReference<>() {});
+            List<AggregationRequestDto> aggregations = objectMapper.readValue(metadata.getAggregationsJson(), new TypeReference<>() {});
+            return RollupDefinition.builder()
+                    .schemaName(metadata.getSchemaName())
+                    .tableName(metadata.getTableName())
+                    .name(metadata.getRollupName())
+                    .groupBy(groupBy)
+                    .aggregations(tableMapper.toModelAggregations(aggregations))
+                    .stale(metadata.isStale())
+                    .build();
+        } catch (Exception e) {
+            throw new DatabaseOperationException("Failed to read rollup " + metadata.getRollupName(), e);
+        }
+    }
+
+    private String writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new DatabaseOperationException("Failed to write rollup definition", e);
+        }
+    }
+}
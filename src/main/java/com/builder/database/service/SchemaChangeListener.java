@@ -0,0 +1,234 @@
+package com.builder.database.service;
+
+import com.builder.database.builder.RollupLayout;
+import com.builder.database.config.DatabaseMetadataInitializer;
+import com.builder.database.config.SchemaChangeProperties;
+import com.builder.database.metrics.MetadataMetrics;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Refreshes the tables named in builder_schema_change notifications (sent by
+ * db/event-trigger/schema_change_notify.sql) on a dedicated LISTEN connection. After a
+ * reconnect the registry is reconciled in full, since notifications may have been missed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "builder.schema-changes", name = "listen", havingValue = "true", matchIfMissing = true)
+public class SchemaChangeListener implements SmartLifecycle {
+
+    private static final String CHANNEL = "builder_schema_change";
+    private static final String TRIGGER_SCRIPT = "db/event-trigger/schema_change_notify.sql";
+    private static final String TEMP_PREFIX = "__tmp_write_";
+
+    private final HikariDataSource primary;
+    private final JdbcTemplate jdbcTemplate;
+    private final TableMetadataService tableMetadataService;
+    private final DatabaseMetadataInitializer metadataInitializer;
+    private final MetadataMetrics metadataMetrics;
+    private final ObjectMapper objectMapper;
+    private final SchemaChangeProperties config;
+
+    private volatile boolean running;
+    private Thread listener;
+    private volatile Connection connection;
+    private boolean resyncNeeded;
+
+    public SchemaChangeListener(DataSource dataSource,
+                                JdbcTemplate jdbcTemplate,
+                                TableMetadataService tableMetadataService,
+                                DatabaseMetadataInitializer metadataInitializer,
+                                MetadataMetrics metadataMetrics,
+                                ObjectMapper objectMapper,
+                                SchemaChangeProperties config) {
+        if (!(dataSource instanceof HikariDataSource hikari)) {
+            throw new IllegalStateException("builder.schema-changes needs HikariCP as the primary DataSource");
+        }
+        this.primary = hikari;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableMetadataService = tableMetadataService;
+        this.metadataInitializer = metadataInitializer;
+        this.metadataMetrics = metadataMetrics;
+        this.objectMapper = objectMapper;
+        this.config = config;
+    }
+
+    // Runs before ContextRefreshedEvent, so LISTEN is in place before the startup reconcile reads the catalog.
+    @Override
+    public void start() {
+        if (config.isInstallTrigger()) {
+            installTrigger();
+        }
+        try {
+            connect();
+        } catch (SQLException e) {
+            log.warn("Cannot LISTEN for schema changes yet, retrying every {}: {}", config.getReconnectInterval(), e.getMessage());
+            resyncNeeded = true;
+        }
+        running = true;
+        listener = new Thread(this::listen, "schema-change-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            try {
+                listener.join(config.getPollInterval().toMillis() + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeConnection();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void installTrigger() {
+        try {
+            String script = StreamUtils.copyToString(new ClassPathResource(TRIGGER_SCRIPT).getInputStream(), StandardCharsets.UTF_8);
+            jdbcTemplate.execute(script);
+            log.info("Installed the schema change event trigger");
+        } catch (IOException | DataAccessException e) {
+            log.warn("Could not install the schema change event trigger (it needs a superuser; run {} by hand): {}",
+                    TRIGGER_SCRIPT, e.getMessage());
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try {
+                if (connection == null) {
+                    connect();
+                }
+                if (resyncNeeded) {
+                    resync();
+                }
+                PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                        .getNotifications((int) config.getPollInterval().toMillis());
+                if (notifications != null && notifications.length > 0) {
+                    apply(notifications);
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost the schema change listener connection, reconnecting in {}: {}",
+                        config.getReconnectInterval(), e.getMessage());
+                closeConnection();
+                resyncNeeded = true;
+                sleep(config.getReconnectInterval().toMillis());
+            } catch (RuntimeException e) {
+                log.error("Schema change handling failed: {}", e.getMessage(), e);
+                sleep(config.getReconnectInterval().toMillis());
+            }
+        }
+    }
+
+    private void apply(PGNotification[] notifications) {
+        Set<Map.Entry<String, String>> tables = new LinkedHashSet<>();
+        for (PGNotification notification : notifications) {
+            try {
+                Map<String, String> payload = objectMapper.readValue(notification.getParameter(), new TypeReference<>() {});
+                String schema = payload.get("schema");
+                String table = payload.get("table");
+                if (schema == null || table == null || table.startsWith(RollupLayout.TABLE_PREFIX)) {
+                    continue;
+                }
+                if (table.startsWith(TEMP_PREFIX)) {
+                    table = table.substring(TEMP_PREFIX.length());
+                }
+                tables.add(Map.entry(schema, table));
+            } catch (IOException e) {
+                log.warn("Ignoring malformed schema change notification {}", notification.getParameter());
+            }
+        }
+
+        for (Map.Entry<String, String> table : tables) {
+            try {
+                tableMetadataService.refreshTable(table.getKey(), table.getValue());
+                metadataMetrics.recordSchemaChange();
+            } catch (RuntimeException e) {
+                // The next notification for the table, or the next startup, corrects it.
+                log.warn("Failed to refresh {}.{} after a schema change: {}", table.getKey(), table.getValue(), e.getMessage());
+            }
+        }
+    }
+
+    private void resync() {
+        int changes = metadataInitializer.reconcile();
+        tableMetadataService.clearTableCaches();
+        resyncNeeded = false;
+        log.info("Schema change listener reconnected; reconciled metadata registry ({} rows changed)", changes);
+    }
+
+    private void connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.putAll(primary.getDataSourceProperties());
+        if (primary.getUsername() != null) {
+            properties.setProperty("user", primary.getUsername());
+        }
+        if (primary.getPassword() != null) {
+            properties.setProperty("password", primary.getPassword());
+        }
+        properties.setProperty("ApplicationName", "schema-change-listener");
+
+        Connection opened = DriverManager.getConnection(primary.getJdbcUrl(), properties);
+        try (Statement statement = opened.createStatement()) {
+            opened.setAutoCommit(true);
+            statement.execute("LISTEN " + CHANNEL);
+        } catch (SQLException e) {
+            opened.close();
+            throw e;
+        }
+        connection = opened;
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        connection = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                log.debug("Closing the schema change listener connection failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.builder.database.service;
+
+import com.builder.database.builder.ParameterizedSql;
+import com.builder.database.config.SelectProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in cache of select results, bounded by an estimate of the bytes held. Every table has a
+ * generation counter that is part of the key; a write bumps it and drops the table's entries, so a
+ * query that raced the write can never store a result that later reads would see.
+ */
+@Component
+public class SelectResultCache {
+
+    private final Cache<ResultKey, CachedResult> cache;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public SelectResultCache(SelectProperties selectProperties, MeterRegistry meterRegistry) {
+        SelectProperties.ResultCache config = selectProperties.getResultCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxBytes())
+                .weigher((ResultKey key, CachedResult value) -> value.weight())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "selectResults");
+    }
+
+    public List<Map<String, Object>> get(String schema, String table, ParameterizedSql query,
+                                         Supplier<List<Map<String, Object>>> loader) {
+        String tableKey = schema + "." + table;
+        ResultKey key = new ResultKey(tableKey, query.getSql(), query.getParameters(), generation(tableKey).get());
+
+        CachedResult cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.rows();
+        }
+
+        List<Map<String, Object>> rows = loader.get().stream()
+                .map(Collections::unmodifiableMap)
+                .toList();
+        if (generation(tableKey).get() == key.generation()) {
+            cache.put(key, new CachedResult(rows, estimateBytes(key, rows)));
+        }
+        return rows;
+    }
+
+    public void invalidateTable(String schema, String table) {
+        String tableKey = schema + "." + table;
+        generation(tableKey).incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.table().equals(tableKey));
+    }
+
+    private AtomicLong generation(String tableKey) {
+        return generations.computeIfAbsent(tableKey, k -> new AtomicLong());
+    }
+
+    private int estimateBytes(ResultKey key, List<Map<String, Object>> rows) {
+        long bytes = 64 + 2L * key.sql().length() + 32L * key.parameters().size();
+        for (Map<String, Object> row : rows) {
+            bytes += 64;
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                bytes += 48 + 2L * entry.getKey().length() + estimateValueBytes(entry.getValue());
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private long estimateValueBytes(Object value) {
+        if (value == null) return 0;
+        if (value instanceof CharSequence text) return 40 + 2L * text.length();
+        if (value instanceof byte[] bytes) return 16 + bytes.length;
+        return 32;
+    }
+
+    private record ResultKey(String table, String sql, List<Object> parameters, long generation) {
+    }
+
+    private record CachedResult(List<Map<String, Object>> rows, int weight) {
+    }
+}
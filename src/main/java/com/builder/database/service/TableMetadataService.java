@@ -4,4 +4,8 @@ import com.builder.database.model.TableDefinitionRequest;
 
 public interface TableMetadataService {
     TableDefinitionRequest getTableDefinition(String schemaName, String tableName, boolean includeIndexes);
+    void evictTableDefinition(String schemaName, String tableName);
+    boolean hasStagingTable(String schemaName, String tableName);
+    void refreshTable(String schemaName, String tableName);
+    void clearTableCaches();
 }
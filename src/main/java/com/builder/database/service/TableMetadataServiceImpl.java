@@ -1,8 +1,10 @@
 package com.builder.database.service;
 
+import com.builder.database.config.CacheConfig;
 import com.builder.database.config.errors.DatabaseOperationException;
 import com.builder.database.model.ColumnDefinition;
 import com.builder.database.model.IndexDefinition;
+import com.builder.database.model.PartitionSpec;
 import com.builder.database.model.TableDefinitionRequest;
 import com.builder.database.repository.TableMetadataRepository;
 import com.builder.database.repository.TempTableMetadataRepository;
@@ -12,11 +14,21 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
@@ -27,10 +39,37 @@ public class TableMetadataServiceImpl implements TableMetadataService {
     private final TableMetadataRepository tableMetadataRepository;
     private final TempTableMetadataRepository tempTableMetadataRepository;
     private final ObjectMapper objectMapper;
+    private final PartitionService partitionService;
+    private final CacheManager cacheManager;
+    private final Map<String, AtomicLong> routingGenerations = new ConcurrentHashMap<>();
+
+    private static final String TEMP_PREFIX = "__tmp_write_";
+    private static final Pattern INDEX_NAME = Pattern.compile("INDEX (\\S+) ON ");
+    private static final Pattern INCLUDE_COLUMNS = Pattern.compile(" INCLUDE \\(([^)]*)\\)");
+
+    private static final String TABLE_COLUMNS_SQL = """
+            SELECT c.relname AS table_name, a.attname AS column_name
+            FROM pg_attribute a
+            JOIN pg_class c ON c.oid = a.attrelid
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE n.nspname = ? AND c.relname IN (?, ?) AND c.relkind IN ('r', 'p')
+              AND a.attnum > 0 AND NOT a.attisdropped
+            ORDER BY c.relname, a.attnum
+            """;
 
     @Override
-    @Cacheable(value = "tableDefinitions", key = "#schema + '.' + #table + '.' + #includeIndexes")
     public TableDefinitionRequest getTableDefinition(String schema, String table, boolean includeIndexes) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.TABLE_DEFINITIONS));
+        String key = schema + "." + table + "." + includeIndexes;
+        TableDefinitionRequest definition = cache.get(key, TableDefinitionRequest.class);
+        if (definition == null) {
+            definition = loadTableDefinition(schema, table, includeIndexes);
+            cache.put(key, definition);
+        }
+        return copyOf(definition);
+    }
+
+    private TableDefinitionRequest loadTableDefinition(String schema, String table, boolean includeIndexes) {
         // Check main table metadata
         Optional<TableMetadata> tableMetadata = tableMetadataRepository.findBySchemaNameAndTableName(schema, table);
 
@@ -45,6 +84,7 @@ public class TableMetadataServiceImpl implements TableMetadataService {
                     .columns(columns)
                     .indexes(indexes)
                     .temporaryWriteTable(false)
+                    .partition(partitionService.getPartitionSpec(schema, table).orElse(null))
                     .build();
         }
 
@@ -68,6 +108,138 @@ public class TableMetadataServiceImpl implements TableMetadataService {
         throw new IllegalArgumentException("No table or temp write table found in schema: " + schema);
     }
 
+    @Override
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.TABLE_DEFINITIONS, key = "#schema + '.' + #table + '.true'"),
+            @CacheEvict(value = CacheConfig.TABLE_DEFINITIONS, key = "#schema + '.' + #table + '.false'")
+    })
+    public void evictTableDefinition(String schema, String table) {
+        log.debug("Evicted cached table definition for {}.{}", schema, table);
+    }
+
+    // Both answers are cached; the generation check keeps a lookup that raced a refresh from caching the old one.
+    @Override
+    public boolean hasStagingTable(String schema, String table) {
+        Cache routing = Objects.requireNonNull(cacheManager.getCache(CacheConfig.TABLE_ROUTING));
+        String key = schema + "." + table;
+        Boolean cached = routing.get(key, Boolean.class);
+        if (cached != null) {
+            return cached;
+        }
+        AtomicLong generation = routingGeneration(key);
+        long seen = generation.get();
+        boolean staged = tableMetadataRepository.findBySchemaNameAndTableName(schema, table)
+                .map(TableMetadata::isHasTempTable)
+                .orElse(false);
+        if (generation.get() == seen) {
+            routing.put(key, staged);
+        }
+        return staged;
+    }
+
+    @Override
+    @Transactional
+    public void refreshTable(String schema, String table) {
+        evictAfterCommit(schema, table);
+        String tempTable = TEMP_PREFIX + table;
+        Map<String, List<String>> columns = new HashMap<>();
+        jdbcTemplate.query(TABLE_COLUMNS_SQL, rs -> {
+            columns.computeIfAbsent(rs.getString("table_name"), name -> new ArrayList<>()).add(rs.getString("column_name"));
+        }, schema, table, tempTable);
+
+        Optional<TableMetadata> existing = tableMetadataRepository.findBySchemaNameAndTableName(schema, table);
+        if (columns.containsKey(table)) {
+            TableMetadata metadata = existing.orElseGet(() -> TableMetadata.builder().schemaName(schema).tableName(table).build());
+            metadata.setHasTempTable(columns.containsKey(tempTable));
+            metadata.setColumnsJson(writeJson(columns.get(table)));
+            tableMetadataRepository.save(metadata);
+        } else {
+            existing.ifPresent(tableMetadataRepository::delete);
+        }
+
+        Optional<TempTableMetadata> existingTemp = tempTableMetadataRepository.findBySchemaNameAndTempTableName(schema, tempTable);
+        if (columns.containsKey(tempTable)) {
+            TempTableMetadata metadata = existingTemp.orElseGet(() -> TempTableMetadata.builder()
+                    .schemaName(schema).tempTableName(tempTable).originalTableName(table).build());
+            metadata.setColumnsJson(writeJson(columns.get(tempTable)));
+            tempTableMetadataRepository.save(metadata);
+        } else {
+            existingTemp.ifPresent(tempTableMetadataRepository::delete);
+        }
+        log.debug("Refreshed registry entry for {}.{}", schema, table);
+    }
+
+    // Evicting before the commit would let a concurrent reader cache the old registry rows again.
+    private void evictAfterCommit(String schema, String table) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Cache definitions = Objects.requireNonNull(cacheManager.getCache(CacheConfig.TABLE_DEFINITIONS));
+                definitions.evict(schema + "." + table + ".true");
+                definitions.evict(schema + "." + table + ".false");
+                routingGeneration(schema + "." + table).incrementAndGet();
+                Objects.requireNonNull(cacheManager.getCache(CacheConfig.TABLE_ROUTING)).evict(schema + "." + table);
+            }
+        });
+    }
+
+    @Override
+    public void clearTableCaches() {
+        Objects.requireNonNull(cacheManager.getCache(CacheConfig.TABLE_DEFINITIONS)).clear();
+        routingGenerations.values().forEach(AtomicLong::incrementAndGet);
+        Objects.requireNonNull(cacheManager.getCache(CacheConfig.TABLE_ROUTING)).clear();
+    }
+
+    private AtomicLong routingGeneration(String key) {
+        return routingGenerations.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private static TableDefinitionRequest copyOf(TableDefinitionRequest definition) {
+        PartitionSpec partition = definition.getPartition();
+        return TableDefinitionRequest.builder()
+                .schemaName(definition.getSchemaName())
+                .tableName(definition.getTableName())
+                .columns(definition.getColumns().stream()
+                        .map(col -> ColumnDefinition.builder()
+                                .name(col.getName())
+                                .type(col.getType())
+                                .primaryKey(col.isPrimaryKey())
+                                .notNull(col.isNotNull())
+                                .defaultValue(col.getDefaultValue())
+                                .build())
+                        .toList())
+                .indexes(definition.getIndexes().stream()
+                        .map(index -> IndexDefinition.builder()
+                                .name(index.getName())
+                                .columnNames(index.getColumnNames() != null ? List.copyOf(index.getColumnNames()) : null)
+                                .indexType(index.getIndexType())
+                                .unique(index.isUnique())
+                                .includeColumns(index.getIncludeColumns() != null ? List.copyOf(index.getIncludeColumns()) : null)
+                                .where(index.getWhere())
+                                .build())
+                        .toList())
+                .temporaryWriteTable(definition.isTemporaryWriteTable())
+                .partition(partition == null ? null : PartitionSpec.builder()
+                        .strategy(partition.getStrategy())
+                        .column(partition.getColumn())
+                        .interval(partition.getInterval())
+                        .premake(partition.getPremake())
+                        .retention(partition.getRetention())
+                        .dropOnRetention(partition.isDropOnRetention())
+                        .listValues(partition.getListValues() != null ? Map.copyOf(partition.getListValues()) : null)
+                        .modulus(partition.getModulus())
+                        .build())
+                .build();
+    }
+
+    private String writeJson(List<String> columnNames) {
+        try {
+            return objectMapper.writeValueAsString(columnNames);
+        } catch (Exception e) {
+            throw new DatabaseOperationException("Failed to write columns of registry entry", e);
+        }
+    }
+
     private List<String> parseColumnsJson(String columnsJson) {
         try {
             return objectMapper.readValue(columnsJson, new TypeReference<List<String>>() {});
@@ -139,10 +311,17 @@ public class TableMetadataServiceImpl implements TableMetadataService {
                 indexType = indexDef.split("USING")[1].trim().split(" ")[0].toUpperCase();
             }
 
+            Matcher name = INDEX_NAME.matcher(indexDef);
+            Matcher include = INCLUDE_COLUMNS.matcher(indexDef);
+
             return IndexDefinition.builder()
+                    .name(name.find() ? name.group(1).replace("\"", "") : null)
                     .columnNames(columns)
                     .indexType(indexType)
                     .unique(unique)
+                    .includeColumns(include.find()
+                            ? Arrays.stream(include.group(1).split(",")).map(c -> c.trim().replace("\"", "")).toList()
+                            : null)
                     .build();
 
         } catch (Exception e) {
@@ -0,0 +1,195 @@
+package com.builder.database.service;
+
+import com.builder.database.builder.SqlBuilder;
+import com.builder.database.builder.SqlBuilderFactory;
+import com.builder.database.config.ProvisioningProperties;
+import com.builder.database.config.WorkloadDataSources;
+import com.builder.database.dto.TableBatchCreateResultDto;
+import com.builder.database.dto.TableCreateRequestDto;
+import com.builder.database.dto.TableCreateResultDto;
+import com.builder.database.mapper.TableMapper;
+import com.builder.database.model.TableDefinitionRequest;
+import com.builder.database.model.Workload;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates many tables for one request (/create/batch), grouped into DDL transactions run in
+ * parallel. Each table runs in its own savepoint, so a failing table rolls back alone.
+ */
+@Slf4j
+@Service
+public class TableProvisioningService {
+
+    private static final String SAVEPOINT = "provision_table";
+
+    private final WorkloadDataSources workloadDataSources;
+    private final SqlBuilderFactory sqlBuilderFactory;
+    private final TableMapper tableMapper;
+    private final PartitionService partitionService;
+    private final TableMetadataService tableMetadataService;
+    private final AdmissionLimiter admissionLimiter;
+    private final ProvisioningProperties config;
+    private final ExecutorService workers;
+
+    public TableProvisioningService(WorkloadDataSources workloadDataSources,
+                                    SqlBuilderFactory sqlBuilderFactory,
+                                    TableMapper tableMapper,
+                                    PartitionService partitionService,
+                                    TableMetadataService tableMetadataService,
+                                    AdmissionLimiter admissionLimiter,
+                                    ProvisioningProperties config) {
+        this.workloadDataSources = workloadDataSources;
+        this.sqlBuilderFactory = sqlBuilderFactory;
+        this.tableMapper = tableMapper;
+        this.partitionService = partitionService;
+        this.tableMetadataService = tableMetadataService;
+        this.admissionLimiter = admissionLimiter;
+        this.config = config;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, config.getParallelism()),
+                new CustomizableThreadFactory("provisioning-"));
+    }
+
+    public TableBatchCreateResultDto createTables(List<TableCreateRequestDto> requests) {
+        if (requests.size() > config.getMaxTables()) {
+            throw new IllegalArgumentException("A batch can create at most " + config.getMaxTables() + " tables");
+        }
+        long start = System.nanoTime();
+        SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        List<TableJob> jobs = new ArrayList<>(requests.size());
+        List<TableJob> runnable = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (TableCreateRequestDto dto : requests) {
+            TableJob job = new TableJob(dto.getSchemaName(), dto.getTableName());
+            jobs.add(job);
+            if (!seen.add(dto.getSchemaName() + "." + dto.getTableName())) {
+                job.error = "Table appears more than once in the batch";
+                continue;
+            }
+            try {
+                job.request = tableMapper.toModel(dto);
+                partitionService.preparePartitioning(job.request);
+                job.statements = sqlBuilder.buildCreateTableStatements(job.request, today);
+                runnable.add(job);
+            } catch (RuntimeException e) {
+                job.error = e.getMessage();
+            }
+        }
+
+        int chunkSize = Math.max(1, config.getTablesPerTransaction());
+        List<CompletableFuture<Void>> transactions = new ArrayList<>();
+        for (int i = 0; i < runnable.size(); i += chunkSize) {
+            List<TableJob> chunk = runnable.subList(i, Math.min(i + chunkSize, runnable.size()));
+            transactions.add(CompletableFuture.runAsync(() -> provision(chunk), workers));
+        }
+        CompletableFuture.allOf(transactions.toArray(CompletableFuture[]::new)).join();
+
+        List<TableCreateResultDto> results = jobs.stream()
+                .map(job -> TableCreateResultDto.builder()
+                        .schemaName(job.schema)
+                        .tableName(job.table)
+                        .created(job.created)
+                        .error(job.error)
+                        .build())
+                .toList();
+        int created = (int) results.stream().filter(TableCreateResultDto::isCreated).count();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Provisioned {} of {} tables in {} transactions, {} ms", created, jobs.size(), transactions.size(), elapsedMillis);
+
+        return TableBatchCreateResultDto.builder()
+                .created(created)
+                .failed(results.size() - created)
+                .elapsedMillis(elapsedMillis)
+                .results(results)
+                .build();
+    }
+
+    private void provision(List<TableJob> chunk) {
+        try (AdmissionLimiter.Permit ignored = admissionLimiter.acquire(Workload.METADATA)) {
+            JdbcTemplate jdbcTemplate = workloadDataSources.jdbcTemplate(Workload.METADATA);
+            try {
+                workloadDataSources.transactionTemplate(Workload.METADATA).executeWithoutResult(status -> {
+                    for (TableJob job : chunk) {
+                        try {
+                            jdbcTemplate.execute("SAVEPOINT " + SAVEPOINT + ";\n"
+                                    + String.join(";\n", job.statements) + ";\n"
+                                    + "RELEASE SAVEPOINT " + SAVEPOINT);
+                            job.created = true;
+                        } catch (DataAccessException e) {
+                            jdbcTemplate.execute("ROLLBACK TO SAVEPOINT " + SAVEPOINT);
+                            job.error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                fail(chunk, e);
+                return;
+            }
+
+            for (TableJob job : chunk) {
+                if (!job.created) {
+                    continue;
+                }
+                try {
+                    if (job.request.getPartition() != null) {
+                        partitionService.registerPartitioning(job.request);
+                    }
+                    tableMetadataService.refreshTable(job.schema, job.table);
+                } catch (RuntimeException e) {
+                    job.error = "Table created but its registry entry failed: " + e.getMessage();
+                }
+            }
+        } catch (RuntimeException e) {
+            // No permit: nothing in the chunk ran.
+            fail(chunk, e);
+        }
+    }
+
+    private static void fail(List<TableJob> chunk, RuntimeException e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        log.warn("Provisioning transaction for {} tables failed: {}", chunk.size(), message);
+        for (TableJob job : chunk) {
+            job.created = false;
+            if (job.error == null) {
+                job.error = message;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private static final class TableJob {
+        private final String schema;
+        private final String table;
+        private TableDefinitionRequest request;
+        private List<String> statements;
+        private volatile boolean created;
+        private volatile String error;
+
+        private TableJob(String schema, String table) {
+            this.schema = schema;
+            this.table = table;
+        }
+    }
+}
@@ -2,16 +2,25 @@ package com.builder.database.service;
 
 import com.builder.database.dto.GenericResultRowDto;
 import com.builder.database.dto.IndexDefinitionDto;
+import com.builder.database.dto.InsertResultDto;
+import com.builder.database.dto.SelectPageDto;
 import com.builder.database.dto.SelectQueryRequestDto;
 import com.builder.database.dto.TableCreateRequestDto;
+import com.builder.database.model.FlushMode;
+import com.builder.database.model.IngestMode;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface TableService {
     void createTable(TableCreateRequestDto request);
     List<GenericResultRowDto> executeSelectQuery(SelectQueryRequestDto request);
+    SelectPageDto executeSelectPage(SelectQueryRequestDto request);
+    void streamSelectQuery(SelectQueryRequestDto request, Consumer<Map<String, Object>> rowConsumer);
     void createIndex(String schemaName, String tableName, IndexDefinitionDto index);
-    void flushTempToActual(String schemaName, String tableName);
-    void insertRows(String schema, String table, List<Map<String, String>> rows);
+    int flushTempToActual(String schemaName, String tableName);
+    int flushTempToActual(String schemaName, String tableName, FlushMode mode);
+    InsertResultDto insertRows(String schema, String table, List<Map<String, String>> rows);
+    InsertResultDto insertRows(String schema, String table, List<Map<String, String>> rows, IngestMode mode);
 }
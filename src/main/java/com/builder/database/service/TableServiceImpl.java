@@ -1,130 +1,611 @@
 package com.builder.database.service;
 
+import com.builder.database.builder.BatchSql;
+import com.builder.database.builder.CtidRange;
+import com.builder.database.builder.ParameterizedSql;
+import com.builder.database.builder.PostgresCopyEncoder;
+import com.builder.database.builder.PostgresParameterBinder;
+import com.builder.database.builder.SelectShape;
 import com.builder.database.builder.SqlBuilder;
 import com.builder.database.builder.SqlBuilderFactory;
 import com.builder.database.config.errors.DatabaseOperationException;
+import com.builder.database.config.CacheConfig;
 import com.builder.database.config.FlushProperties;
+import com.builder.database.config.IngestProperties;
+import com.builder.database.config.SelectProperties;
+import com.builder.database.config.WorkloadDataSources;
 import com.builder.database.dto.GenericResultRowDto;
 import com.builder.database.dto.IndexDefinitionDto;
+import com.builder.database.dto.InsertResultDto;
+import com.builder.database.dto.SelectPageDto;
 import com.builder.database.dto.SelectQueryRequestDto;
 import com.builder.database.dto.TableCreateRequestDto;
 import com.builder.database.mapper.TableMapper;
+import com.builder.database.metrics.FlushMetrics;
+import com.builder.database.metrics.IngestMetrics;
+import com.builder.database.model.ColumnDefinition;
+import com.builder.database.model.FlushMode;
 import com.builder.database.model.IndexDefinition;
+import com.builder.database.model.IngestMode;
+import com.builder.database.model.OrderByRequest;
+import com.builder.database.model.RollupDefinition;
+import com.builder.database.model.SelectQueryRequest;
 import com.builder.database.model.TableDefinitionRequest;
+import com.builder.database.model.Workload;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.dao.DataAccessException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
 import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TableServiceImpl implements TableService {
 
-    private final JdbcTemplate jdbcTemplate;
+    private final WorkloadDataSources workloadDataSources;
     private final SqlBuilderFactory sqlBuilderFactory;
     private final TableMapper tableMapper;
     private final FlushProperties flushProperties;
     private final TableMetadataService tableMetadataService;
+    private final IngestProperties ingestProperties;
+    private final IngestMetrics ingestMetrics;
+    private final FlushMetrics flushMetrics;
+    private final SelectProperties selectProperties;
+    private final KeysetTokenCodec keysetTokenCodec;
+    private final CacheManager cacheManager;
+    private final SelectResultCache selectResultCache;
+    private final RollupService rollupService;
+    private final ApproximateAggregationService approximateAggregationService;
+    private final FlushRangeExecutor flushRangeExecutor;
+    private final PartitionService partitionService;
+    private final AdmissionLimiter admissionLimiter;
+    private final WorkloadRecorder workloadRecorder;
 
     @Override
     public void createTable(TableCreateRequestDto requestDto) {
+        try (AdmissionLimiter.Permit ignored = admissionLimiter.acquire(Workload.METADATA)) {
+            create(requestDto);
+        }
+    }
+
+    private void create(TableCreateRequestDto requestDto) {
         SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
+        JdbcTemplate jdbcTemplate = workloadDataSources.jdbcTemplate(Workload.METADATA);
 
         TableDefinitionRequest request = tableMapper.toModel(requestDto);
+        partitionService.preparePartitioning(request);
 
-        if (request.isTemporaryWriteTable()) {
-            String createTempTableSql = sqlBuilder.buildCreateTempWriteTableSql(request);
-            jdbcTemplate.execute(createTempTableSql);
-            String createTableSql = sqlBuilder.buildCreateTableSql(request);
-            jdbcTemplate.execute(createTableSql);
-
-            sqlBuilder.buildAllCreateIndexSql(
-                    request.getSchemaName(), request.getTableName(), request.getIndexes()
-            ).forEach(jdbcTemplate::execute);
-        } else {
-            String createTableSql = sqlBuilder.buildCreateTableSql(request);
-            jdbcTemplate.execute(createTableSql);
+        sqlBuilder.buildCreateTableStatements(request, LocalDate.now(ZoneOffset.UTC)).forEach(jdbcTemplate::execute);
 
-            sqlBuilder.buildAllCreateIndexSql(
-                    request.getSchemaName(), request.getTableName(), request.getIndexes()
-            ).forEach(jdbcTemplate::execute);
+        if (request.getPartition() != null) {
+            partitionService.registerPartitioning(request);
         }
+        tableMetadataService.refreshTable(request.getSchemaName(), request.getTableName());
     }
 
     @Override
     public List<GenericResultRowDto> executeSelectQuery(SelectQueryRequestDto requestDto) {
-        SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
+        try (AdmissionLimiter.Permit ignored = admissionLimiter.acquire(Workload.QUERY)) {
+            return select(requestDto);
+        }
+    }
 
-        String sql = sqlBuilder.buildSelectQuerySql(
-                requestDto.getSchemaName(),
-                requestDto.getTableName(),
-                requestDto.getColumns(),
-                requestDto.getFilters(),
-                tableMapper.toModelAggregations(requestDto.getAggregations())
-        );
+    private List<GenericResultRowDto> select(SelectQueryRequestDto requestDto) {
+        SelectQueryRequest request = toSelectModel(requestDto, false);
+        if (approximateAggregationService.isApproximate(request)) {
+            return approximateAggregationService.execute(request).stream()
+                    .map(tableMapper::fromMap)
+                    .toList();
+        }
+        SelectShape shape = sqlBuilderFactory.getBuilder().buildSelectShape(request);
+        ParameterizedSql query = compileSelect(request, shape);
 
-        log.debug("Executing select: {}", sql);
+        log.debug("Executing select: {}", query.getSql());
 
-        List<Map<String, Object>> rows = jdbcTemplate.query(sql, new ColumnMapRowMapper());
+        List<Map<String, Object>> rows = useResultCache(requestDto, request)
+                ? selectResultCache.get(request.getSchemaName(), request.getTableName(), query, () -> queryForRows(shape, request, query))
+                : queryForRows(shape, request, query);
 
+        Set<String> sortColumns = addedSortColumns(requestDto, request);
         return rows.stream()
-                .map(tableMapper::fromMap)
+                .map(row -> tableMapper.fromMap(withoutColumns(row, sortColumns)))
                 .toList();
     }
 
+    @Override
+    public void streamSelectQuery(SelectQueryRequestDto requestDto, Consumer<Map<String, Object>> rowConsumer) {
+        try (AdmissionLimiter.Permit ignored = admissionLimiter.acquire(Workload.QUERY)) {
+            stream(requestDto, rowConsumer);
+        }
+    }
+
+    private void stream(SelectQueryRequestDto requestDto, Consumer<Map<String, Object>> rowConsumer) {
+        SelectQueryRequest request = toSelectModel(requestDto, false);
+        if (approximateAggregationService.isApproximate(request)) {
+            // One row per group, already reduced in memory; there is nothing left to stream.
+            approximateAggregationService.execute(request).forEach(rowConsumer);
+            return;
+        }
+        SelectShape shape = sqlBuilderFactory.getBuilder().buildSelectShape(request);
+        ParameterizedSql query = compileSelect(request, shape);
+        Set<String> sortColumns = addedSortColumns(requestDto, request);
+        ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+        JdbcTemplate jdbcTemplate = workloadDataSources.jdbcTemplate(Workload.QUERY);
+
+        log.debug("Streaming select: {}", query.getSql());
+
+        // pgjdbc only opens a server-side cursor when autocommit is off and a fetch size is set,
+        // otherwise it buffers the whole result set in memory before returning the first row.
+        workloadDataSources.transactionTemplate(Workload.QUERY).executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                            query.getSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    PostgresParameterBinder.bind(ps, query.parameterArray());
+                    ps.setFetchSize(selectProperties.getStreamFetchSize());
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> rowConsumer.accept(withoutColumns(rowMapper.mapRow(rs, rs.getRow()), sortColumns))
+        ));
+    }
+
+    @Override
+    public SelectPageDto executeSelectPage(SelectQueryRequestDto requestDto) {
+        try (AdmissionLimiter.Permit ignored = admissionLimiter.acquire(Workload.QUERY)) {
+            return selectPage(requestDto);
+        }
+    }
+
+    private SelectPageDto selectPage(SelectQueryRequestDto requestDto) {
+        SelectQueryRequest request = toSelectModel(requestDto, true);
+        SelectShape shape = sqlBuilderFactory.getBuilder().buildSelectShape(request);
+        ParameterizedSql query = compileSelect(request, shape);
+
+        log.debug("Executing page select: {}", query.getSql());
+
+        List<Map<String, Object>> rows = queryForRows(shape, request, query);
+
+        String nextPageToken = rows.size() == request.getLimit()
+                ? keysetTokenCodec.encode(request.getOrderBy(), rows.get(rows.size() - 1))
+                : null;
+
+        Set<String> sortColumns = addedSortColumns(requestDto, request);
+        return SelectPageDto.builder()
+                .rows(rows.stream().map(row -> tableMapper.fromMap(withoutColumns(row, sortColumns))).toList())
+                .nextPageToken(nextPageToken)
+                .build();
+    }
+
+    private boolean useResultCache(SelectQueryRequestDto requestDto, SelectQueryRequest request) {
+        if (!selectProperties.getResultCache().isEnabled()) {
+            return false;
+        }
+        if (requestDto.getCacheResult() != null) {
+            return requestDto.getCacheResult();
+        }
+        return request.getAggregations() != null && !request.getAggregations().isEmpty();
+    }
+
+    // Cached per shape; identical text lets pgjdbc keep reusing its server-side prepared statement.
+    private ParameterizedSql compileSelect(SelectQueryRequest request, SelectShape shape) {
+        SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
+
+        // Rollup-backed text depends on which rollups are fresh, so it bypasses the shape cache.
+        Optional<RollupDefinition> rollup = rollupService.findRollupFor(request);
+        if (rollup.isPresent()) {
+            log.debug("Answering select on {}.{} from rollup {}", request.getSchemaName(), request.getTableName(), rollup.get().getName());
+            TableDefinitionRequest def = tableMetadataService.getTableDefinition(request.getSchemaName(), request.getTableName(), false);
+            return sqlBuilder.buildRollupSelectQuerySql(request, rollup.get(), def);
+        }
+
+        if (!selectProperties.isStatementCacheEnabled()) {
+            return sqlBuilder.buildSelectQuerySql(request);
+        }
+
+        // Collecting first also validates the request, so a bad filter never reaches the cache loader.
+        List<Object> parameters = sqlBuilder.collectSelectParameters(request);
+        Cache statements = Objects.requireNonNull(cacheManager.getCache(CacheConfig.SELECT_STATEMENTS));
+        String sql = statements.get(shape,
+                () -> sqlBuilder.buildSelectQuerySql(request).getSql());
+        return new ParameterizedSql(sql, parameters);
+    }
+
+    private List<Map<String, Object>> queryForRows(SelectShape shape, SelectQueryRequest request, ParameterizedSql query) {
+        long start = System.nanoTime();
+        List<Map<String, Object>> rows = workloadDataSources.jdbcTemplate(Workload.QUERY).query(query.getSql(),
+                ps -> PostgresParameterBinder.bind(ps, query.parameterArray()),
+                new ColumnMapRowMapper());
+        workloadRecorder.record(shape, request, System.nanoTime() - start);
+        return rows;
+    }
+
+    private SelectQueryRequest toSelectModel(SelectQueryRequestDto requestDto, boolean paged) {
+        SelectQueryRequest request = tableMapper.toModel(requestDto);
+        if ((paged || requestDto.getPageToken() != null) && approximateAggregationService.isApproximate(request)) {
+            throw new IllegalArgumentException("Approximate aggregations cannot be paged; use /select or /select/stream");
+        }
+        if (!paged && requestDto.getPageToken() == null) {
+            return request;
+        }
+
+        request.setOrderBy(resolveKeysetOrder(request));
+        if (!isAggregated(request)) {
+            request.setColumns(withSortColumns(request));
+        }
+        if (paged) {
+            int pageSize = request.getLimit() != null ? request.getLimit() : selectProperties.getDefaultPageSize();
+            request.setLimit(Math.min(pageSize, selectProperties.getMaxPageSize()));
+        }
+        if (requestDto.getPageToken() != null) {
+            request.setKeysetValues(keysetTokenCodec.decode(requestDto.getPageToken(), request.getOrderBy()));
+        }
+        return request;
+    }
+
+    // Tie-breakers reuse the last requested direction so the keyset stays comparable as one row value.
+    private List<OrderByRequest> resolveKeysetOrder(SelectQueryRequest request) {
+        List<OrderByRequest> order = new ArrayList<>(request.getOrderBy() != null ? request.getOrderBy() : List.of());
+        boolean aggregated = isAggregated(request);
+        List<String> groupColumns = request.getColumns() != null ? request.getColumns() : List.of();
+
+        if (aggregated && order.stream().anyMatch(o -> !groupColumns.contains(o.getColumn()))) {
+            throw new IllegalArgumentException("Paged aggregations can only be ordered by group-by columns");
+        }
+
+        List<String> tieBreakers = aggregated ? groupColumns : primaryKeyColumns(request);
+        boolean descending = !order.isEmpty() && order.get(order.size() - 1).isDescending();
+        Set<String> ordered = order.stream().map(OrderByRequest::getColumn).collect(Collectors.toSet());
+        tieBreakers.stream()
+                .filter(column -> !ordered.contains(column))
+                .forEach(column -> order.add(new OrderByRequest(column, descending)));
+
+        if (order.isEmpty()) {
+            throw new IllegalArgumentException("Paged selects need an orderBy or a primary key on "
+                    + request.getSchemaName() + "." + request.getTableName());
+        }
+        return order;
+    }
+
+    private List<String> primaryKeyColumns(SelectQueryRequest request) {
+        try {
+            return tableMetadataService.getTableDefinition(request.getSchemaName(), request.getTableName(), false)
+                    .getColumns().stream()
+                    .filter(ColumnDefinition::isPrimaryKey)
+                    .map(ColumnDefinition::getName)
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            // Unregistered table: rely on the caller's orderBy being unique.
+            return List.of();
+        }
+    }
+
+    // Invalidating before the caller's transaction commits would let a select re-cache the old rows.
+    private void afterCommit(String schema, String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateAfterWrite(schema, table);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    invalidateAfterWrite(schema, table);
+                } catch (RuntimeException e) {
+                    // Thrown here it would fail a commit that already happened, and the batch would be written twice.
+                    log.error("Invalidating {}.{} after a committed insert failed: {}", schema, table, e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    private void invalidateAfterWrite(String schema, String table) {
+        rollupService.markStale(schema, table);
+        selectResultCache.invalidateTable(schema, table);
+    }
+
+    private static boolean isAggregated(SelectQueryRequest request) {
+        return request.getAggregations() != null && !request.getAggregations().isEmpty();
+    }
+
+    private List<String> withSortColumns(SelectQueryRequest request) {
+        List<String> columns = request.getColumns();
+        if (columns == null || columns.isEmpty()) {
+            return columns;
+        }
+        List<String> withKeys = new ArrayList<>(columns);
+        request.getOrderBy().stream()
+                .map(OrderByRequest::getColumn)
+                .filter(column -> !withKeys.contains(column))
+                .forEach(withKeys::add);
+        return withKeys;
+    }
+
+    private static Set<String> addedSortColumns(SelectQueryRequestDto requestDto, SelectQueryRequest request) {
+        if (requestDto.getColumns() == null || requestDto.getColumns().isEmpty() || request.getColumns() == null) {
+            return Set.of();
+        }
+        Set<String> added = new HashSet<>(request.getColumns());
+        requestDto.getColumns().forEach(added::remove);
+        return added;
+    }
+
+    private static Map<String, Object> withoutColumns(Map<String, Object> row, Set<String> columns) {
+        if (columns.isEmpty()) {
+            return row;
+        }
+        Map<String, Object> stripped = new LinkedHashMap<>(row);
+        columns.forEach(stripped::remove);
+        return stripped;
+    }
+
     @Override
     public void createIndex(String schemaName, String tableName, IndexDefinitionDto index) {
+        try (AdmissionLimiter.Permit ignored = admissionLimiter.acquire(Workload.METADATA)) {
+            buildIndex(schemaName, tableName, index);
+        }
+    }
+
+    private void buildIndex(String schemaName, String tableName, IndexDefinitionDto index) {
         SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
         IndexDefinition indexModel = tableMapper.toModel(index);
         String sql = sqlBuilder.buildCreateIndexSql(schemaName, tableName, indexModel);
-        jdbcTemplate.execute(sql);
+        workloadDataSources.jdbcTemplate(Workload.METADATA).execute(sql);
+        tableMetadataService.evictTableDefinition(schemaName, tableName);
     }
 
     @Override
-    public void flushTempToActual(String schema, String table) {
+    public int flushTempToActual(String schema, String table) {
+        return flushTempToActual(schema, table, null);
+    }
+
+    @Override
+    public int flushTempToActual(String schema, String table, FlushMode requestedMode) {
+        try (AdmissionLimiter.Permit ignored = admissionLimiter.acquire(Workload.FLUSH)) {
+            return flush(schema, table, requestedMode);
+        }
+    }
+
+    private int flush(String schema, String table, FlushMode requestedMode) {
         SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
 
         TableDefinitionRequest def = tableMetadataService.getTableDefinition(schema, table, false);
+        FlushMode mode = requestedMode != null ? requestedMode : flushProperties.getMode();
+        List<RollupDefinition> rollups = rollupService.getRollupDefinitions(schema, table);
+
+        List<CtidRange> ranges = planFlushRanges(sqlBuilder, schema, table);
+        int moved;
+        if (ranges.isEmpty()) {
+            moved = flushBatch(sqlBuilder, def, mode, rollups, null);
+        } else {
+            // One batch per range, so a call does the same bounded work as the serial path.
+            log.info("Flushing {}.{} over {} ctid ranges ({}).", schema, table, ranges.size(), mode);
+            moved = flushRangeExecutor.runAll(ranges.stream()
+                    .map(range -> (Callable<Integer>) () -> flushBatch(sqlBuilder, def, mode, rollups, range))
+                    .toList());
+        }
+        if (moved > 0 && rollupAddedSince(rollups, schema, table)) {
+            // Batches committed after the new rollup was populated were not folded into it.
+            rollupService.markStale(schema, table);
+        }
+        return moved;
+    }
+
+    private boolean rollupAddedSince(List<RollupDefinition> rollups, String schema, String table) {
+        Set<String> known = rollups.stream().map(RollupDefinition::getName).collect(Collectors.toSet());
+        return rollupService.getRollupDefinitions(schema, table).stream()
+                .anyMatch(rollup -> !known.contains(rollup.getName()));
+    }
+
+    private List<CtidRange> planFlushRanges(SqlBuilder sqlBuilder, String schema, String table) {
+        if (flushProperties.getParallelism() <= 1) {
+            return List.of();
+        }
+        Long blocks = workloadDataSources.jdbcTemplate(Workload.FLUSH).queryForObject(
+                sqlBuilder.buildRelationBlockCountSql(schema, "__tmp_write_" + table), Long.class);
+        long minRangeBlocks = Math.max(1, flushProperties.getMinRangeBlocks());
+        int workers = (int) Math.min(flushProperties.getParallelism(), (blocks == null ? 0 : blocks) / minRangeBlocks);
+        if (workers < 2) {
+            return List.of();
+        }
+
+        long rangeBlocks = (blocks + workers - 1) / workers;
+        List<CtidRange> ranges = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            Long end = i == workers - 1 ? null : (i + 1) * rangeBlocks;
+            ranges.add(new CtidRange(i * rangeBlocks, end));
+        }
+        return ranges;
+    }
+
+    private int flushBatch(SqlBuilder sqlBuilder, TableDefinitionRequest def, FlushMode mode,
+                           List<RollupDefinition> rollups, CtidRange range) {
+        String schema = def.getSchemaName();
+        String table = def.getTableName();
         int batchSize = flushProperties.getBatchSize();
 
-        String sql = sqlBuilder.buildFlushFromTempToActualSql(def, batchSize);
+        log.info("Flushing up to {} rows from {}.{} to actual table ({}).", batchSize, schema, table, mode);
+        JdbcTemplate jdbcTemplate = workloadDataSources.jdbcTemplate(Workload.FLUSH);
+        long start = System.nanoTime();
+        // Rollup metadata lives on the primary pool, so it is marked in a transaction of its own;
+        // marking stale before this batch commits errs on the safe side if the batch rolls back.
+        int moved = Objects.requireNonNull(workloadDataSources.transactionTemplate(Workload.FLUSH).execute(status -> {
+            // Conflicts with the SHARE lock of a rollup rebuild, so no batch is both folded and rebuilt.
+            jdbcTemplate.execute(sqlBuilder.buildLockTableSql(schema, table, "ROW EXCLUSIVE"));
+
+            String sql = switch (mode) {
+                case APPEND -> sqlBuilder.buildFlushFromTempToActualSql(def, batchSize, rollups, range);
+                case MERGE -> sqlBuilder.buildMergeFromTempToActualSql(def, batchSize, range);
+            };
+            int count = Objects.requireNonNull(jdbcTemplate.queryForObject(sql, Integer.class));
+            if (mode == FlushMode.MERGE && count > 0 && !rollups.isEmpty()) {
+                // Rows updated in place cannot be folded into partial aggregates.
+                rollupService.markStale(schema, table);
+            }
+            return count;
+        }));
+        flushMetrics.recordFlush(schema, table, moved, System.nanoTime() - start);
+        if (moved > 0) {
+            selectResultCache.invalidateTable(schema, table);
+        }
+        return moved;
+    }
 
-        log.info("Flushing {} rows from {}.{} to actual table.", batchSize, schema, table);
-        jdbcTemplate.execute(sql);
+    @Override
+    public InsertResultDto insertRows(String schema, String table, List<Map<String, String>> rows) {
+        return insertRows(schema, table, rows, null);
     }
 
     @Override
-    public void insertRows(String schema, String table, List<Map<String, String>> rows) {
+    public InsertResultDto insertRows(String schema, String table, List<Map<String, String>> rows, IngestMode requestedMode) {
         if (rows == null || rows.isEmpty()) {
             throw new IllegalArgumentException("Insert rows cannot be empty");
         }
 
+        try (AdmissionLimiter.Permit ignored = admissionLimiter.acquire(Workload.INGEST)) {
+            return insert(schema, table, rows, requestedMode);
+        }
+    }
+
+    private InsertResultDto insert(String schema, String table, List<Map<String, String>> rows, IngestMode requestedMode) {
         SqlBuilder sqlBuilder = sqlBuilderFactory.getBuilder();
 
-        boolean writeToTemp = Boolean.TRUE.equals(
-                jdbcTemplate.queryForObject(
-                        sqlBuilder.buildTableExistsSql(schema, "__tmp_write_" + table),
-                        Boolean.class
-                )
-        );
+        boolean writeToTemp = tableMetadataService.hasStagingTable(schema, table);
 
-        int batchSize = flushProperties.getBatchSize();
+        IngestMode mode = resolveIngestMode(requestedMode, writeToTemp);
+        long start = System.nanoTime();
+        long written;
 
         try {
-            for (int i = 0; i < rows.size(); i += batchSize) {
-                List<Map<String, String>> batch = rows.subList(i, Math.min(i + batchSize, rows.size()));
-                String sql = sqlBuilder.buildBulkInsertSql(schema, table, batch, writeToTemp);
-                jdbcTemplate.execute(sql);
-            }
+            written = switch (mode) {
+                case INSERT -> insertLiteralBatches(sqlBuilder, schema, table, rows, writeToTemp);
+                case PREPARED -> insertPreparedBatches(sqlBuilder, schema, table, rows, writeToTemp);
+                case COPY_TEXT, COPY_BINARY -> copyRows(sqlBuilder, schema, table, rows, writeToTemp, mode);
+            };
         } catch (DataAccessException ex) {
             log.error("Database insert failed for table {}.{}: {}", schema, table, ex.getMessage(), ex);
             throw new DatabaseOperationException("Failed to insert rows into " + schema + "." + table, ex);
+        } finally {
+            // Staged rows only become visible at flush time, which invalidates on its own. Direct
+            // writes bypass the rollups, and a failed one may still have committed its first batches.
+            if (!writeToTemp) {
+                afterCommit(schema, table);
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        ingestMetrics.record(mode, writeToTemp, written, elapsedNanos);
+
+        double rowsPerSecond = written * 1_000_000_000d / Math.max(elapsedNanos, 1);
+        log.debug("Inserted {} rows into {}.{} using {} ({} rows/sec)", written, schema, table, mode, (long) rowsPerSecond);
+
+        return InsertResultDto.builder()
+                .schemaName(schema)
+                .tableName(table)
+                .stagingTable(writeToTemp)
+                .mode(mode)
+                .rowCount(written)
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .rowsPerSecond(rowsPerSecond)
+                .build();
+    }
+
+    private IngestMode resolveIngestMode(IngestMode requestedMode, boolean writeToTemp) {
+        IngestMode mode = requestedMode != null ? requestedMode : ingestProperties.getMode();
+        if (mode == IngestMode.COPY_BINARY && !writeToTemp) {
+            // Binary COPY needs per-type encoders; only the all-TEXT staging table is safe.
+            return IngestMode.COPY_TEXT;
+        }
+        return mode;
+    }
+
+    private long insertLiteralBatches(SqlBuilder sqlBuilder, String schema, String table,
+                                      List<Map<String, String>> rows, boolean writeToTemp) {
+        int batchSize = flushProperties.getBatchSize();
+
+        for (int i = 0; i < rows.size(); i += batchSize) {
+            List<Map<String, String>> batch = rows.subList(i, Math.min(i + batchSize, rows.size()));
+            String sql = sqlBuilder.buildBulkInsertSql(schema, table, batch, writeToTemp);
+            workloadDataSources.jdbcTemplate(Workload.INGEST).execute(sql);
         }
+        return rows.size();
+    }
+
+    private long insertPreparedBatches(SqlBuilder sqlBuilder, String schema, String table,
+                                       List<Map<String, String>> rows, boolean writeToTemp) {
+        BatchSql batchSql = sqlBuilder.buildParameterizedBulkInsertSql(schema, table, rows, writeToTemp);
+
+        // With reWriteBatchedInserts the driver reports SUCCESS_NO_INFO, so count the submitted rows.
+        workloadDataSources.jdbcTemplate(Workload.INGEST).batchUpdate(batchSql.getSql(), batchSql.getBatchArgs(), flushProperties.getBatchSize(),
+                PostgresParameterBinder::bind);
+        return rows.size();
+    }
+
+    private long copyRows(SqlBuilder sqlBuilder, String schema, String table,
+                          List<Map<String, String>> rows, boolean writeToTemp, IngestMode mode) {
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String sql = sqlBuilder.buildCopyFromStdinSql(schema, table, columns, writeToTemp, mode);
+
+        Long copied = workloadDataSources.jdbcTemplate(Workload.INGEST).execute((ConnectionCallback<Long>) connection -> {
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            PGCopyOutputStream copyOut = new PGCopyOutputStream(pgConnection, sql, ingestProperties.getCopyBufferSize());
+            DataOutputStream out = new DataOutputStream(copyOut);
+            try {
+                if (mode == IngestMode.COPY_BINARY) {
+                    PostgresCopyEncoder.writeBinaryHeader(out);
+                }
+                for (Map<String, String> row : rows) {
+                    List<String> values = columns.stream()
+                            .map(col -> row.getOrDefault(col, ""))
+                            .toList();
+                    if (mode == IngestMode.COPY_BINARY) {
+                        PostgresCopyEncoder.writeBinaryRow(out, values);
+                    } else {
+                        PostgresCopyEncoder.writeTextRow(out, values);
+                    }
+                }
+                if (mode == IngestMode.COPY_BINARY) {
+                    PostgresCopyEncoder.writeBinaryTrailer(out);
+                }
+                out.flush();
+                return copyOut.endCopy();
+            } catch (IOException | RuntimeException ex) {
+                // Never let a half-written stream reach endCopy(), or the partial batch would commit.
+                if (copyOut.isActive()) {
+                    copyOut.cancelCopy();
+                }
+                throw new SQLException("COPY stream failed for " + schema + "." + table, ex);
+            }
+        });
+
+        return copied != null ? copied : 0L;
     }
 }
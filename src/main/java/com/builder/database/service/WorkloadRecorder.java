@@ -0,0 +1,169 @@
+package com.builder.database.service;
+
+import com.builder.database.builder.SelectShape;
+import com.builder.database.config.AdvisorProperties;
+import com.builder.database.model.SelectQueryRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory record of the select workload, for the index advisor: per table, each query shape with
+ * its calls, latencies and a sample request to EXPLAIN. Bounded by max-tables and
+ * max-shapes-per-table; when full, the entry with the least recorded time per second of age goes.
+ */
+@Component
+public class WorkloadRecorder {
+
+    private static final int BUCKETS = 18; // up to 2^17 ms (~2 min), then overflow into the last
+    private static final long MIN_AGE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AdvisorProperties config;
+    private final LongSupplier nanoClock;
+    private final Map<String, TableWorkload> tables = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WorkloadRecorder(AdvisorProperties config) {
+        this(config, System::nanoTime);
+    }
+
+    WorkloadRecorder(AdvisorProperties config, LongSupplier nanoClock) {
+        this.config = config;
+        this.nanoClock = nanoClock;
+    }
+
+    public void record(SelectShape shape, SelectQueryRequest request, long elapsedNanos) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        String key = request.getSchemaName() + "." + request.getTableName();
+        TableWorkload table = tables.get(key);
+        if (table == null) {
+            if (tables.size() >= config.getMaxTables()) {
+                evictColdestTable(now);
+            }
+            table = tables.computeIfAbsent(key, k -> new TableWorkload(request.getSchemaName(), request.getTableName(), now));
+        }
+        table.record(shape, request, elapsedNanos, config.getMaxShapesPerTable(), now);
+    }
+
+    public List<ShapeWorkload> snapshot(String schema, String table) {
+        List<ShapeWorkload> shapes = new ArrayList<>();
+        tables.values().stream()
+                .filter(workload -> schema == null || workload.schema.equals(schema))
+                .filter(workload -> table == null || workload.table.equals(table))
+                .forEach(workload -> shapes.addAll(workload.snapshot()));
+        return shapes;
+    }
+
+    // Time per unit of age rather than total time, so an entry that just arrived is not the first to go.
+    private void evictColdestTable(long now) {
+        tables.entrySet().stream()
+                .min(Comparator.comparingDouble(entry -> heat(entry.getValue().totalNanos(), entry.getValue().firstSeen, now)))
+                .ifPresent(entry -> tables.remove(entry.getKey()));
+    }
+
+    private static double heat(long totalNanos, long firstSeen, long now) {
+        return totalNanos / (double) Math.max(now - firstSeen, MIN_AGE_NANOS);
+    }
+
+    public record ShapeWorkload(String schemaName,
+                                String tableName,
+                                SelectQueryRequest sample,
+                                long calls,
+                                long totalNanos,
+                                long maxNanos,
+                                long p95Nanos) {
+
+        public double meanMillis() {
+            return calls == 0 ? 0 : totalNanos / (double) calls / 1_000_000;
+        }
+    }
+
+    private static final class TableWorkload {
+        private final String schema;
+        private final String table;
+        private final long firstSeen;
+        private final Map<SelectShape, ShapeStats> shapes = new HashMap<>();
+
+        private TableWorkload(String schema, String table, long firstSeen) {
+            this.schema = schema;
+            this.table = table;
+            this.firstSeen = firstSeen;
+        }
+
+        private synchronized void record(SelectShape shape, SelectQueryRequest request, long elapsedNanos, int maxShapes, long now) {
+            ShapeStats stats = shapes.get(shape);
+            if (stats == null) {
+                if (shapes.size() >= maxShapes) {
+                    shapes.entrySet().stream()
+                            .min(Comparator.comparingDouble(entry -> heat(entry.getValue().totalNanos, entry.getValue().firstSeen, now)))
+                            .ifPresent(entry -> shapes.remove(entry.getKey()));
+                }
+                stats = new ShapeStats(now);
+                shapes.put(shape, stats);
+            }
+            stats.record(request, elapsedNanos);
+        }
+
+        private synchronized long totalNanos() {
+            return shapes.values().stream().mapToLong(stats -> stats.totalNanos).sum();
+        }
+
+        private synchronized List<ShapeWorkload> snapshot() {
+            return shapes.values().stream()
+                    .map(stats -> new ShapeWorkload(schema, table, stats.sample, stats.calls,
+                            stats.totalNanos, stats.maxNanos, stats.percentile(0.95)))
+                    .toList();
+        }
+    }
+
+    private static final class ShapeStats {
+        private final long[] histogram = new long[BUCKETS];
+        private final long firstSeen;
+        private SelectQueryRequest sample;
+        private long calls;
+        private long totalNanos;
+        private long maxNanos;
+
+        private ShapeStats(long firstSeen) {
+            this.firstSeen = firstSeen;
+        }
+
+        private void record(SelectQueryRequest request, long elapsedNanos) {
+            sample = request;
+            calls++;
+            totalNanos += elapsedNanos;
+            maxNanos = Math.max(maxNanos, elapsedNanos);
+            histogram[bucket(elapsedNanos)]++;
+        }
+
+        private long percentile(double quantile) {
+            long rank = (long) Math.ceil(calls * quantile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram[i];
+                if (seen >= rank) {
+                    return Math.min(TimeUnit.MILLISECONDS.toNanos(1L << i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        // Bucket i holds latencies up to 2^i ms.
+        private static int bucket(long elapsedNanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            int bucket = millis <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(millis - 1);
+            return Math.min(bucket, BUCKETS - 1);
+        }
+    }
+}
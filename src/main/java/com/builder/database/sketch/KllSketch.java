@@ -0,0 +1,105 @@
+package com.builder.database.sketch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * KLL quantile sketch. Memory stays around 3k values regardless of the input size, and the rank
+ * error of a returned quantile is roughly 1.65 / k with high probability.
+ */
+public class KllSketch {
+
+    private static final double CAPACITY_DECAY = 2d / 3d;
+
+    private final int k;
+    private final List<List<Double>> compactors = new ArrayList<>();
+    private int size;
+    private int maxSize;
+
+    public KllSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("KLL k must be at least 8");
+        }
+        this.k = k;
+        grow();
+    }
+
+    public void update(double value) {
+        compactors.get(0).add(value);
+        size++;
+        if (size >= maxSize) {
+            compress();
+        }
+    }
+
+    public boolean isEmpty() {
+        return compactors.stream().allMatch(List::isEmpty);
+    }
+
+    public Double quantile(double fraction) {
+        List<double[]> weighted = new ArrayList<>();
+        long totalWeight = 0;
+        for (int level = 0; level < compactors.size(); level++) {
+            long weight = 1L << level;
+            for (double value : compactors.get(level)) {
+                weighted.add(new double[]{value, weight});
+                totalWeight += weight;
+            }
+        }
+        if (weighted.isEmpty()) {
+            return null;
+        }
+
+        weighted.sort((a, b) -> Double.compare(a[0], b[0]));
+        double target = fraction * totalWeight;
+        double cumulative = 0;
+        for (double[] entry : weighted) {
+            cumulative += entry[1];
+            if (cumulative >= target) {
+                return entry[0];
+            }
+        }
+        return weighted.get(weighted.size() - 1)[0];
+    }
+
+    private void compress() {
+        for (int level = 0; level < compactors.size(); level++) {
+            List<Double> compactor = compactors.get(level);
+            if (compactor.size() < capacity(level)) {
+                continue;
+            }
+            if (level + 1 >= compactors.size()) {
+                grow();
+            }
+
+            // Keep every other sorted value from a random offset; each survivor doubles its weight.
+            Collections.sort(compactor);
+            Double leftover = compactor.size() % 2 == 1 ? compactor.remove(compactor.size() - 1) : null;
+            List<Double> promoted = compactors.get(level + 1);
+            for (int i = ThreadLocalRandom.current().nextInt(2); i < compactor.size(); i += 2) {
+                promoted.add(compactor.get(i));
+            }
+            compactor.clear();
+            if (leftover != null) {
+                compactor.add(leftover);
+            }
+            break;
+        }
+        size = compactors.stream().mapToInt(List::size).sum();
+    }
+
+    private void grow() {
+        compactors.add(new ArrayList<>());
+        maxSize = 0;
+        for (int level = 0; level < compactors.size(); level++) {
+            maxSize += capacity(level);
+        }
+    }
+
+    private int capacity(int level) {
+        int depth = compactors.size() - level - 1;
+        return (int) Math.ceil(Math.pow(CAPACITY_DECAY, depth) * k) + 1;
+    }
+}
@@ -0,0 +1,365 @@
+package com.builder.database.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of {@code [int length][int crc32c][payload]} records in segment files named by
+ * their first offset. Appends return once fsynced, with concurrent appends sharing one force; a
+ * torn record at the tail is truncated on open.
+ */
+public final class IngestSpool implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long syncIntervalNanos;
+    private final NavigableSet<Long> segments = new ConcurrentSkipListSet<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private FileChannel active;
+    private long activeBase;
+    private volatile long writtenOffset;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition pending = syncLock.newCondition();
+    private final Condition synced = syncLock.newCondition();
+    private volatile long durableOffset;
+    private volatile IOException syncFailure;
+    private volatile boolean closed;
+    private final Thread syncer;
+
+    private volatile long checkpoint;
+
+    public IngestSpool(Path directory, long segmentBytes, long syncIntervalNanos) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncIntervalNanos = syncIntervalNanos;
+
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .forEach(segments::add);
+        }
+        long storedCheckpoint = readCheckpoint();
+
+        if (segments.isEmpty()) {
+            activeBase = storedCheckpoint;
+            segments.add(activeBase);
+            active = FileChannel.open(segmentPath(activeBase), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            writtenOffset = activeBase;
+        } else {
+            activeBase = segments.last();
+            active = FileChannel.open(segmentPath(activeBase), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long validBytes = recoverTail(active);
+            active.truncate(validBytes);
+            active.position(validBytes);
+            active.force(true);
+            writtenOffset = activeBase + validBytes;
+        }
+        durableOffset = writtenOffset;
+        checkpoint = Math.max(storedCheckpoint, segments.first());
+
+        syncer = new Thread(this::syncLoop, "ingest-spool-sync");
+        syncer.setDaemon(true);
+        syncer.start();
+    }
+
+    public long append(byte[] payload) throws IOException {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the spool segment size");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(recordBytes)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+
+        long end;
+        writeLock.lock();
+        try {
+            ensureOpen();
+            if (writtenOffset - activeBase + recordBytes > segmentBytes) {
+                roll();
+            }
+            while (record.hasRemaining()) {
+                active.write(record);
+            }
+            writtenOffset += recordBytes;
+            end = writtenOffset;
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(end);
+        return end;
+    }
+
+    public List<Entry> read(long from, long maxBytes) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long offset = from;
+        long readBytes = 0;
+        long limit = durableOffset;
+
+        while (offset < limit && (entries.isEmpty() || readBytes < maxBytes)) {
+            Long base = segments.floor(offset);
+            if (base == null) {
+                throw new IllegalStateException("Spool offset " + offset + " precedes the oldest segment");
+            }
+            try (FileChannel channel = FileChannel.open(segmentPath(base), StandardOpenOption.READ)) {
+                long segmentEnd = Math.min(base + channel.size(), limit);
+                long position = offset - base;
+                while (base + position < segmentEnd && (entries.isEmpty() || readBytes < maxBytes)) {
+                    ByteBuffer header = readFully(channel, position, HEADER_BYTES);
+                    int length = header.getInt();
+                    int crc = header.getInt();
+                    byte[] payload = readFully(channel, position + HEADER_BYTES, length).array();
+                    if (!matches(payload, crc)) {
+                        throw new IllegalStateException("Corrupt spool record at offset " + (base + position));
+                    }
+                    long next = base + position + HEADER_BYTES + length;
+                    entries.add(new Entry(base + position, next, payload));
+                    readBytes += length;
+                    position += HEADER_BYTES + length;
+                }
+                if (base + position == offset) {
+                    // Nothing left in this segment; a sealed one ends exactly where the next begins.
+                    Long next = segments.higher(base);
+                    if (next == null || next <= offset) {
+                        break;
+                    }
+                    offset = next;
+                } else {
+                    offset = base + position;
+                }
+            }
+        }
+        return entries;
+    }
+
+    public void checkpoint(long offset) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(offset).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        checkpoint = offset;
+
+        for (Long base : segments) {
+            Long next = segments.higher(base);
+            if (next == null || next > offset) {
+                break;
+            }
+            segments.remove(base);
+            Files.deleteIfExists(segmentPath(base));
+        }
+    }
+
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    public long pendingBytes() {
+        return writtenOffset - checkpoint;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            active.force(true);
+            durableOffset = writtenOffset;
+            active.close();
+        } finally {
+            writeLock.unlock();
+        }
+        signal(synced);
+        signal(pending);
+    }
+
+    private void roll() throws IOException {
+        active.force(true);
+        active.close();
+        activeBase = writtenOffset;
+        segments.add(activeBase);
+        active = FileChannel.open(segmentPath(activeBase), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        // Everything before the new segment was just forced.
+        publishDurable(activeBase);
+    }
+
+    private void syncLoop() {
+        while (!closed) {
+            syncLock.lock();
+            try {
+                while (!closed && durableOffset >= writtenOffset) {
+                    pending.await();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                syncLock.unlock();
+            }
+            if (closed) {
+                return;
+            }
+            if (syncIntervalNanos > 0) {
+                // Lets more appends join this fsync.
+                try {
+                    TimeUnit.NANOSECONDS.sleep(syncIntervalNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            FileChannel channel;
+            long target;
+            writeLock.lock();
+            try {
+                channel = active;
+                target = writtenOffset;
+            } finally {
+                writeLock.unlock();
+            }
+            try {
+                channel.force(false);
+                publishDurable(target);
+            } catch (ClosedChannelException e) {
+                // Rolled or closed meanwhile; both force the old segment themselves.
+            } catch (IOException e) {
+                syncFailure = e;
+                signal(synced);
+                return;
+            }
+        }
+    }
+
+    private void awaitDurable(long offset) throws IOException {
+        signal(pending);
+        syncLock.lock();
+        try {
+            while (durableOffset < offset) {
+                if (syncFailure != null) {
+                    throw new IOException("Spool fsync failed", syncFailure);
+                }
+                if (closed) {
+                    throw new IOException("Spool closed before the record was synced");
+                }
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void publishDurable(long offset) {
+        syncLock.lock();
+        try {
+            if (offset > durableOffset) {
+                durableOffset = offset;
+            }
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void signal(Condition condition) {
+        syncLock.lock();
+        try {
+            condition.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Spool is closed");
+        }
+        if (syncFailure != null) {
+            throw new IOException("Spool fsync failed", syncFailure);
+        }
+    }
+
+    private long recoverTail(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        while (position + HEADER_BYTES <= size) {
+            ByteBuffer header = readFully(channel, position, HEADER_BYTES);
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length < 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            if (!matches(readFully(channel, position + HEADER_BYTES, length).array(), crc)) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return 0L;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(path)).getLong();
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new UncheckedIOException(new IOException("Unexpected end of spool segment"));
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static boolean matches(byte[] payload, int crc) {
+        CRC32C actual = new CRC32C();
+        actual.update(payload);
+        return (int) actual.getValue() == crc;
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    public record Entry(long offset, long nextOffset, byte[] payload) {
+    }
+}
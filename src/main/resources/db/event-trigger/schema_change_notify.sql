@@ -0,0 +1,46 @@
+-- Publishes the schema and name of every table touched by DDL on the builder_schema_change channel,
+-- so running instances refresh their registry row and cached definitions for just that table.
+-- Event triggers need a superuser: install with psql -f, or set builder.schema-changes.install-trigger
+-- when the service connects as one. Safe to re-run.
+CREATE OR REPLACE FUNCTION builder_notify_schema_change() RETURNS event_trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    changed RECORD;
+BEGIN
+    IF TG_EVENT = 'sql_drop' THEN
+        FOR changed IN
+            SELECT DISTINCT schema_name, object_name
+            FROM pg_event_trigger_dropped_objects()
+            WHERE object_type IN ('table', 'view', 'foreign table') AND NOT is_temporary
+        LOOP
+            PERFORM pg_notify('builder_schema_change',
+                    json_build_object('schema', changed.schema_name, 'table', changed.object_name)::text);
+        END LOOP;
+    ELSE
+        -- Index commands are reported against the index; notify for the table it belongs to.
+        FOR changed IN
+            SELECT DISTINCT n.nspname AS schema_name, c.relname AS object_name
+            FROM pg_event_trigger_ddl_commands() d
+            JOIN pg_class c ON c.oid = CASE WHEN d.object_type = 'index'
+                    THEN (SELECT i.indrelid FROM pg_index i WHERE i.indexrelid = d.objid)
+                    ELSE d.objid END
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE d.classid = 'pg_class'::regclass
+              AND d.object_type IN ('table', 'table column', 'index', 'view', 'foreign table')
+              AND NOT c.relispartition
+              AND n.nspname NOT LIKE 'pg\_%'
+        LOOP
+            PERFORM pg_notify('builder_schema_change',
+                    json_build_object('schema', changed.schema_name, 'table', changed.object_name)::text);
+        END LOOP;
+    END IF;
+END
+$$;
+
+DROP EVENT TRIGGER IF EXISTS builder_schema_change_ddl;
+CREATE EVENT TRIGGER builder_schema_change_ddl ON ddl_command_end
+    EXECUTE FUNCTION builder_notify_schema_change();
+
+DROP EVENT TRIGGER IF EXISTS builder_schema_change_drop;
+CREATE EVENT TRIGGER builder_schema_change_drop ON sql_drop
+    EXECUTE FUNCTION builder_notify_schema_change();
@@ -0,0 +1,20 @@
+-- Rollup definitions: summary tables maintained incrementally by the flush pipeline
+CREATE SEQUENCE IF NOT EXISTS rollup_metadata_id_seq;
+
+CREATE TABLE IF NOT EXISTS rollup_metadata (
+    id BIGINT DEFAULT nextval('rollup_metadata_id_seq') PRIMARY KEY,
+    schema_name VARCHAR(255) NOT NULL,
+    table_name VARCHAR(255) NOT NULL,
+    rollup_name VARCHAR(255) NOT NULL,
+    group_columns JSONB NOT NULL,
+    aggregations JSONB NOT NULL,
+    stale BOOLEAN DEFAULT FALSE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(schema_name, table_name, rollup_name)
+);
+
+GRANT ALL PRIVILEGES ON rollup_metadata TO root;
+GRANT USAGE, SELECT ON SEQUENCE rollup_metadata_id_seq TO root;
+ALTER SEQUENCE rollup_metadata_id_seq OWNER TO root;
+ALTER TABLE rollup_metadata OWNER TO root;
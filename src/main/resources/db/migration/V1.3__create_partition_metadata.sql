@@ -0,0 +1,24 @@
+-- Partition specs of declaratively partitioned tables, read by the partition maintenance job
+CREATE SEQUENCE IF NOT EXISTS partition_metadata_id_seq;
+
+CREATE TABLE IF NOT EXISTS partition_metadata (
+    id BIGINT DEFAULT nextval('partition_metadata_id_seq') PRIMARY KEY,
+    schema_name VARCHAR(255) NOT NULL,
+    table_name VARCHAR(255) NOT NULL,
+    strategy VARCHAR(16) NOT NULL,
+    partition_column VARCHAR(255) NOT NULL,
+    range_interval VARCHAR(16),
+    premake INTEGER,
+    retention INTEGER,
+    drop_on_retention BOOLEAN DEFAULT FALSE,
+    list_values JSONB,
+    modulus INTEGER,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(schema_name, table_name)
+);
+
+GRANT ALL PRIVILEGES ON partition_metadata TO root;
+GRANT USAGE, SELECT ON SEQUENCE partition_metadata_id_seq TO root;
+ALTER SEQUENCE partition_metadata_id_seq OWNER TO root;
+ALTER TABLE partition_metadata OWNER TO root;
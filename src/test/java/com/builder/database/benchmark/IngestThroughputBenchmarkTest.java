@@ -0,0 +1,121 @@
+package com.builder.database.benchmark;
+
+import com.builder.database.builder.BatchSql;
+import com.builder.database.builder.PostgresParameterBinder;
+import com.builder.database.builder.PostgresSqlBuilder;
+import com.builder.database.builder.SqlBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Side-by-side throughput of the literal INSERT and PREPARED ingest modes, issuing the same
+ * statements as TableServiceImpl. Needs a PostgreSQL database, so it only runs when one is named:
+ * <pre>
+ * mvn test -Dtest=IngestThroughputBenchmarkTest -Dbenchmark.jdbc-url=jdbc:postgresql://localhost/bench \
+ *     -Dbenchmark.user=postgres -Dbenchmark.password=postgres [-Dbenchmark.rows=200000]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc-url", matches = ".+")
+class IngestThroughputBenchmarkTest {
+
+    private static final String SCHEMA = "public";
+    private static final String TABLE = "ingest_benchmark";
+    private static final int COLUMNS = 8;
+    private static final int BATCH_SIZE = 1000;
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private final SqlBuilder sqlBuilder = new PostgresSqlBuilder();
+
+    @BeforeAll
+    static void connect() {
+        dataSource = new SingleConnectionDataSource(System.getProperty("benchmark.jdbc-url"),
+                System.getProperty("benchmark.user"), System.getProperty("benchmark.password"), true);
+        Properties properties = new Properties();
+        properties.setProperty("reWriteBatchedInserts", "true"); // as on the ingest pool
+        dataSource.setConnectionProperties(properties);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        List<String> columns = new ArrayList<>();
+        for (int i = 0; i < COLUMNS; i++) {
+            columns.add("c" + i + " text");
+        }
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + SCHEMA + "." + TABLE);
+        jdbcTemplate.execute("CREATE UNLOGGED TABLE " + SCHEMA + "." + TABLE + " (" + String.join(", ", columns) + ")");
+    }
+
+    @AfterAll
+    static void dropTable() {
+        if (jdbcTemplate != null) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + SCHEMA + "." + TABLE);
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    void comparesLiteralAndPreparedInserts() {
+        List<Map<String, String>> rows = rows(Integer.getInteger("benchmark.rows", 200_000));
+
+        // First pass of each warms up the JIT and the server-side statement cache.
+        run("INSERT", rows.subList(0, Math.min(rows.size(), 20_000)), this::insertLiteral);
+        run("PREPARED", rows.subList(0, Math.min(rows.size(), 20_000)), this::insertPrepared);
+
+        double literal = run("INSERT", rows, this::insertLiteral);
+        double prepared = run("PREPARED", rows, this::insertPrepared);
+        System.out.printf("%d rows x %d columns: INSERT %.0f rows/s, PREPARED %.0f rows/s (%.2fx)%n",
+                rows.size(), COLUMNS, literal, prepared, prepared / literal);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM " + SCHEMA + "." + TABLE, Long.class))
+                .isEqualTo(rows.size());
+    }
+
+    private double run(String mode, List<Map<String, String>> rows, Inserter inserter) {
+        jdbcTemplate.execute("TRUNCATE " + SCHEMA + "." + TABLE);
+        long start = System.nanoTime();
+        for (int i = 0; i < rows.size(); i += BATCH_SIZE) {
+            inserter.insert(rows.subList(i, Math.min(i + BATCH_SIZE, rows.size())));
+        }
+        double rowsPerSecond = rows.size() * 1_000_000_000d / (System.nanoTime() - start);
+        System.out.printf("%-8s %8d rows %12.0f rows/s%n", mode, rows.size(), rowsPerSecond);
+        return rowsPerSecond;
+    }
+
+    private void insertLiteral(List<Map<String, String>> batch) {
+        jdbcTemplate.execute(sqlBuilder.buildBulkInsertSql(SCHEMA, TABLE, batch, false));
+    }
+
+    private void insertPrepared(List<Map<String, String>> batch) {
+        BatchSql batchSql = sqlBuilder.buildParameterizedBulkInsertSql(SCHEMA, TABLE, batch, false);
+        jdbcTemplate.batchUpdate(batchSql.getSql(), batchSql.getBatchArgs(), BATCH_SIZE, PostgresParameterBinder::bind);
+    }
+
+    private static List<Map<String, String>> rows(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Map<String, String>> rows = new ArrayList<>(count);
+        for (int r = 0; r < count; r++) {
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int c = 0; c < COLUMNS; c++) {
+                row.put("c" + c, Long.toString(random.nextLong(), 36));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    private interface Inserter {
+        void insert(List<Map<String, String>> batch);
+    }
+}
@@ -0,0 +1,115 @@
+package com.builder.database.builder;
+
+import com.builder.database.model.AggregationRequest;
+import com.builder.database.model.ColumnDefinition;
+import com.builder.database.model.PartitionInterval;
+import com.builder.database.model.RollupDefinition;
+import com.builder.database.model.SelectQueryRequest;
+import com.builder.database.model.TableDefinitionRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostgresSqlBuilderTest {
+
+    private final PostgresSqlBuilder sqlBuilder = new PostgresSqlBuilder();
+
+    @Test
+    void appendFlushReturnsTheClaimedRowCount() {
+        String sql = sqlBuilder.buildFlushFromTempToActualSql(orders(), 1000, List.of(), null);
+
+        assertThat(sql).contains("DELETE FROM \"public\".\"__tmp_write_orders\"")
+                .contains("LIMIT 1000 FOR UPDATE SKIP LOCKED")
+                .contains("inserted AS (\n    INSERT INTO \"public\".\"orders\"")
+                .endsWith("SELECT count(*) FROM moved;\n");
+    }
+
+    @Test
+    void mergeFlushKeepsTheLatestRowPerKeyAndReturnsTheClaimedRowCount() {
+        String sql = sqlBuilder.buildMergeFromTempToActualSql(orders(), 1000, null);
+
+        assertThat(sql).contains("SELECT DISTINCT ON (\"id\") * FROM typed")
+                .contains("),\nmerged AS (")
+                .contains("ON CONFLICT (\"id\") DO UPDATE SET")
+                .contains("WHERE EXCLUDED.\"lastUpdateDate\" >= target.\"lastUpdateDate\"")
+                .endsWith("SELECT count(*) FROM moved;\n");
+    }
+
+    @Test
+    void rollupSelectKeepsTheRawAggregateTypes() {
+        RollupDefinition rollup = RollupDefinition.builder()
+                .schemaName("public")
+                .tableName("orders")
+                .name("by_region")
+                .groupBy(List.of("region"))
+                .aggregations(List.of(
+                        aggregation("SUM", "qty", "q"),
+                        aggregation("SUM", "price", "p"),
+                        aggregation("AVG", "amount", "a")))
+                .build();
+        SelectQueryRequest request = SelectQueryRequest.builder()
+                .schemaName("public")
+                .tableName("orders")
+                .columns(List.of("region"))
+                .aggregations(rollup.getAggregations())
+                .build();
+
+        String sql = sqlBuilder.buildRollupSelectQuerySql(request, rollup, orders()).getSql();
+
+        assertThat(sql).contains("CAST(SUM(\"__sum_qty\") AS BIGINT) AS \"q\"")
+                .contains("CAST(SUM(\"__sum_price\") AS DOUBLE PRECISION) AS \"p\"")
+                .contains("CAST(SUM(\"__sum_amount\") / NULLIF(SUM(\"__count_amount\"), 0) AS NUMERIC) AS \"a\"")
+                .contains("FROM \"public\".\"__rollup_orders_by_region\" GROUP BY \"region\"");
+    }
+
+    @Test
+    void splittingTheDefaultPartitionMovesItsRowsIntoTheNewPartition() {
+        List<String> statements = sqlBuilder.buildSplitDefaultPartitionSql("public", "events", "created_at",
+                PartitionInterval.MONTH, LocalDate.of(2026, 10, 1));
+
+        assertThat(statements).containsExactly(
+                "ALTER TABLE \"public\".\"events\" DETACH PARTITION \"public\".\"events_default\";",
+                "CREATE TABLE IF NOT EXISTS \"public\".\"events_p20261001\" PARTITION OF \"public\".\"events\""
+                        + " FOR VALUES FROM ('2026-10-01') TO ('2026-11-01');",
+                "WITH moved AS (DELETE FROM \"public\".\"events_default\""
+                        + " WHERE \"created_at\" >= '2026-10-01' AND \"created_at\" < '2026-11-01' RETURNING *)"
+                        + " INSERT INTO \"public\".\"events_p20261001\" SELECT * FROM moved;",
+                "ALTER TABLE \"public\".\"events\" ATTACH PARTITION \"public\".\"events_default\" DEFAULT;");
+    }
+
+    @Test
+    void detachesConcurrentlyOnlyWhenAsked() {
+        assertThat(sqlBuilder.buildDetachPartitionSql("public", "events", "events_p20261001", true))
+                .endsWith("DETACH PARTITION \"public\".\"events_p20261001\" CONCURRENTLY;");
+        assertThat(sqlBuilder.buildDetachPartitionSql("public", "events", "events_p20261001", false))
+                .endsWith("DETACH PARTITION \"public\".\"events_p20261001\";");
+        assertThat(sqlBuilder.buildFinalizeDetachPartitionSql("public", "events", "events_p20261001"))
+                .endsWith("DETACH PARTITION \"public\".\"events_p20261001\" FINALIZE;");
+    }
+
+    static TableDefinitionRequest orders() {
+        return TableDefinitionRequest.builder()
+                .schemaName("public")
+                .tableName("orders")
+                .columns(List.of(
+                        column("id", "BIGINT", true),
+                        column("region", "TEXT", false),
+                        column("qty", "INTEGER", false),
+                        column("price", "DOUBLE PRECISION", false),
+                        column("amount", "NUMERIC(12,2)", false),
+                        column("lastUpdateDate", "TIMESTAMP", false)))
+                .indexes(List.of())
+                .build();
+    }
+
+    private static AggregationRequest aggregation(String function, String column, String alias) {
+        return AggregationRequest.builder().function(function).column(column).alias(alias).build();
+    }
+
+    private static ColumnDefinition column(String name, String type, boolean primaryKey) {
+        return ColumnDefinition.builder().name(name).type(type).primaryKey(primaryKey).build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.builder.database.service;
+
+import com.builder.database.config.AdmissionProperties;
+import com.builder.database.config.FlushProperties;
+import com.builder.database.config.WorkloadDataSources;
+import com.builder.database.config.errors.BackpressureException;
+import com.builder.database.metrics.PoolMetrics;
+import com.builder.database.model.Workload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionLimiterTest {
+
+    private final WorkloadDataSources workloadDataSources = mock(WorkloadDataSources.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdmissionProperties admissionProperties = new AdmissionProperties();
+    private final FlushProperties flushProperties = new FlushProperties();
+
+    @Test
+    void splitsASharedPoolBetweenItsWorkloads() throws InterruptedException {
+        pool(Workload.QUERY, 10, 2);
+
+        assertThat(admittedInParallel(limiter(), Workload.QUERY)).isEqualTo(5);
+    }
+
+    @Test
+    void dividesTheFlushPoolByItsParallelism() throws InterruptedException {
+        pool(Workload.FLUSH, 8, 1);
+        flushProperties.setParallelism(4);
+
+        assertThat(admittedInParallel(limiter(), Workload.FLUSH)).isEqualTo(2);
+    }
+
+    @Test
+    void readmitsAThreadThatAlreadyHoldsAPermit() {
+        pool(Workload.QUERY, 1, 1);
+        AdmissionLimiter limiter = limiter();
+
+        try (AdmissionLimiter.Permit outer = limiter.acquire(Workload.QUERY);
+             AdmissionLimiter.Permit inner = limiter.acquire(Workload.QUERY)) {
+            assertThat(meterRegistry.get("builder.admission.in-flight").tag("workload", "QUERY").gauge().value())
+                    .isEqualTo(1);
+        }
+        limiter.acquire(Workload.QUERY).close();
+    }
+
+    @Test
+    void rejectsOnceTheAcquireTimeoutPasses() throws InterruptedException {
+        pool(Workload.QUERY, 1, 1);
+        AdmissionLimiter limiter = limiter();
+        admittedInParallel(limiter, Workload.QUERY);
+
+        assertThatThrownBy(() -> limiter.acquire(Workload.QUERY)).isInstanceOf(BackpressureException.class);
+        assertThat(meterRegistry.get("builder.admission.rejected").tag("workload", "QUERY").counter().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    private void pool(Workload workload, int maximumPoolSize, int sharedBy) {
+        for (Workload each : Workload.values()) {
+            when(workloadDataSources.maximumPoolSize(each)).thenReturn(each == workload ? maximumPoolSize : 1);
+            when(workloadDataSources.workloadsSharingPool(each)).thenReturn(each == workload ? sharedBy : 1);
+        }
+    }
+
+    private AdmissionLimiter limiter() {
+        admissionProperties.getQuery().setAcquireTimeout(Duration.ofMillis(20));
+        admissionProperties.getFlush().setAcquireTimeout(Duration.ofMillis(20));
+        return new AdmissionLimiter(admissionProperties, workloadDataSources, flushProperties,
+                new PoolMetrics(meterRegistry));
+    }
+
+    /** Takes permits from fresh threads, never releasing them, until one is turned away. */
+    private static int admittedInParallel(AdmissionLimiter limiter, Workload workload) throws InterruptedException {
+        for (int admitted = 0; admitted < 100; admitted++) {
+            AtomicBoolean rejected = new AtomicBoolean();
+            Thread thread = new Thread(() -> {
+                try {
+                    limiter.acquire(workload);
+                } catch (BackpressureException e) {
+                    rejected.set(true);
+                }
+            });
+            thread.start();
+            thread.join();
+            if (rejected.get()) {
+                return admitted;
+            }
+        }
+        throw new AssertionError("never rejected");
+    }
+}
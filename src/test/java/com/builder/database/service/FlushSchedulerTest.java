@@ -0,0 +1,101 @@
+package com.builder.database.service;
+
+import com.builder.database.config.FlushProperties;
+import com.builder.database.entity.TableMetadata;
+import com.builder.database.metrics.FlushMetrics;
+import com.builder.database.repository.TableMetadataRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.DoublePredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FlushSchedulerTest {
+
+    private final TableService tableService = mock(TableService.class);
+    private final TableMetadataRepository repository = mock(TableMetadataRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FlushProperties flushProperties = new FlushProperties();
+    private final FlushScheduler scheduler = new FlushScheduler(tableService, repository, flushProperties,
+            new FlushMetrics(meterRegistry));
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void drainsUntilABatchComesBackShort() {
+        when(repository.findByHasTempTableTrue()).thenReturn(List.of(table("orders")));
+        when(tableService.flushTempToActual("public", "orders"))
+                .thenReturn(flushProperties.getBatchSize(), flushProperties.getBatchSize(), 10);
+
+        scheduler.dispatch();
+
+        verify(tableService, timeout(2000).times(3)).flushTempToActual("public", "orders");
+    }
+
+    @Test
+    void yieldsOnceTheRowBudgetIsSpent() throws InterruptedException {
+        flushProperties.getScheduler().setMaxBatchesPerRun(4);
+        int batchSize = flushProperties.getBatchSize();
+        when(repository.findByHasTempTableTrue()).thenReturn(List.of(table("orders")));
+        // A call over two ctid ranges moves a batch from each.
+        when(tableService.flushTempToActual("public", "orders")).thenReturn(2 * batchSize);
+
+        scheduler.dispatch();
+        verify(tableService, timeout(2000).times(2)).flushTempToActual("public", "orders");
+        Thread.sleep(100);
+
+        verify(tableService, times(2)).flushTempToActual("public", "orders");
+    }
+
+    @Test
+    void failedFlushReportsLagAndBacksOff() throws InterruptedException {
+        when(repository.findByHasTempTableTrue()).thenReturn(List.of(table("orders")));
+        when(tableService.flushTempToActual("public", "orders")).thenThrow(new IllegalStateException("down"));
+        Thread.sleep(20);
+
+        scheduler.dispatch();
+        verify(tableService, timeout(2000)).flushTempToActual("public", "orders");
+        awaitLag(lag -> lag > 0);
+
+        scheduler.dispatch(); // still backing off
+        Thread.sleep(100);
+        verify(tableService, times(1)).flushTempToActual("public", "orders");
+    }
+
+    @Test
+    void unregisteredTableLosesItsLagGauge() {
+        when(repository.findByHasTempTableTrue()).thenReturn(List.of(table("orders")), List.of());
+        when(tableService.flushTempToActual("public", "orders")).thenReturn(0);
+
+        scheduler.dispatch();
+        assertThat(meterRegistry.find("builder.flush.lag").tag("table", "public.orders").gauge()).isNotNull();
+
+        scheduler.dispatch();
+        assertThat(meterRegistry.find("builder.flush.lag").tag("table", "public.orders").gauge()).isNull();
+    }
+
+    private void awaitLag(DoublePredicate condition) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            if (condition.test(meterRegistry.get("builder.flush.lag").tag("table", "public.orders").gauge().value())) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("lag gauge never matched");
+    }
+
+    private static TableMetadata table(String name) {
+        return TableMetadata.builder().schemaName("public").tableName(name).hasTempTable(true).build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.builder.database.service;
+
+import com.builder.database.builder.SqlBuilderFactory;
+import com.builder.database.config.AdvisorProperties;
+import com.builder.database.config.WorkloadDataSources;
+import com.builder.database.dto.IndexDefinitionDto;
+import com.builder.database.dto.IndexRecommendationDto;
+import com.builder.database.mapper.TableMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class IndexAdvisorServiceTest {
+
+    private final IndexAdvisorService advisor = new IndexAdvisorService(mock(WorkloadRecorder.class),
+            mock(WorkloadDataSources.class), new SqlBuilderFactory(), mock(TableMetadataService.class),
+            mock(IndexBuildService.class), mock(AdmissionLimiter.class), new TableMapper(),
+            new AdvisorProperties(), new ObjectMapper());
+
+    @Test
+    void rejectsANegativeLimit() {
+        assertThatThrownBy(() -> advisor.recommend("public", "orders", -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void dropsAnIndexLeadingABetterRankedOneOnTheSameTable() {
+        List<IndexRecommendationDto> kept = IndexAdvisorService.withoutCoveredPrefixes(List.of(
+                recommendation("orders", "region", "created_at"),
+                recommendation("orders", "region"),
+                recommendation("invoices", "region"),
+                recommendation("orders", "created_at")));
+
+        assertThat(kept).extracting(r -> r.getTableName() + ":" + r.getIndex().getColumnNames())
+                .containsExactly("orders:[region, created_at]", "invoices:[region]", "orders:[created_at]");
+    }
+
+    private static IndexRecommendationDto recommendation(String table, String... columns) {
+        return IndexRecommendationDto.builder()
+                .schemaName("public")
+                .tableName(table)
+                .index(IndexDefinitionDto.builder().columnNames(List.of(columns)).build())
+                .build();
+    }
+}
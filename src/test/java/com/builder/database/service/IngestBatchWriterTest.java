@@ -0,0 +1,35 @@
+package com.builder.database.service;
+
+import com.builder.database.config.errors.BackpressureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.UncategorizedSQLException;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestBatchWriterTest {
+
+    @Test
+    void retriesConnectionLossSerializationFailuresAndDeadlocks() {
+        assertThat(IngestBatchWriter.isTransient(wrapped("08006"))).isTrue();
+        assertThat(IngestBatchWriter.isTransient(wrapped("40001"))).isTrue();
+        assertThat(IngestBatchWriter.isTransient(wrapped("40P01"))).isTrue();
+        assertThat(IngestBatchWriter.isTransient(new BackpressureException("busy"))).isTrue();
+        assertThat(IngestBatchWriter.isTransient(new CannotGetJdbcConnectionException("pool exhausted"))).isTrue();
+    }
+
+    @Test
+    void doesNotRetryRowsTheDatabaseRejected() {
+        assertThat(IngestBatchWriter.isTransient(wrapped("22P02"))).isFalse();
+        assertThat(IngestBatchWriter.isTransient(
+                new DataIntegrityViolationException("duplicate", new SQLException("duplicate", "23505")))).isFalse();
+        assertThat(IngestBatchWriter.isTransient(new IllegalArgumentException("unknown column"))).isFalse();
+    }
+
+    private static UncategorizedSQLException wrapped(String sqlState) {
+        return new UncategorizedSQLException("insert", "INSERT ...", new SQLException("failed", sqlState));
+    }
+}
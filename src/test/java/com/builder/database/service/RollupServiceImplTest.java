@@ -0,0 +1,96 @@
+package com.builder.database.service;
+
+import com.builder.database.builder.SqlBuilderFactory;
+import com.builder.database.config.SelectProperties;
+import com.builder.database.entity.RollupMetadata;
+import com.builder.database.mapper.TableMapper;
+import com.builder.database.model.AggregationRequest;
+import com.builder.database.model.RollupDefinition;
+import com.builder.database.model.SelectQueryRequest;
+import com.builder.database.repository.RollupMetadataRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RollupServiceImplTest {
+
+    private final RollupMetadataRepository repository = mock(RollupMetadataRepository.class);
+    private final RollupServiceImpl rollupService = new RollupServiceImpl(mock(JdbcTemplate.class), new SqlBuilderFactory(),
+            repository, mock(TableMetadataService.class), new TableMapper(), new ObjectMapper(), new SelectProperties());
+
+    @Test
+    void routesToTheSmallestRollupCoveringTheSelect() {
+        when(repository.findBySchemaNameAndTableName("public", "orders")).thenReturn(List.of(
+                rollup("by_region_day", "[\"region\", \"day\"]", false),
+                rollup("by_region", "[\"region\"]", false)));
+
+        Optional<RollupDefinition> match = rollupService.findRollupFor(sumOfQtyBy("region"));
+
+        assertThat(match).map(RollupDefinition::getName).contains("by_region");
+    }
+
+    @Test
+    void cachesTheMatchPerShape() {
+        when(repository.findBySchemaNameAndTableName("public", "orders"))
+                .thenReturn(List.of(rollup("by_region", "[\"region\"]", false)));
+
+        rollupService.findRollupFor(sumOfQtyBy("region"));
+        rollupService.findRollupFor(sumOfQtyBy("region"));
+
+        verify(repository, times(1)).findBySchemaNameAndTableName("public", "orders");
+    }
+
+    @Test
+    void markingStaleDropsTheCachedMatch() {
+        when(repository.findBySchemaNameAndTableName("public", "orders"))
+                .thenReturn(List.of(rollup("by_region", "[\"region\"]", false)))
+                .thenReturn(List.of(rollup("by_region", "[\"region\"]", true)));
+        when(repository.markStale("public", "orders")).thenReturn(1);
+
+        assertThat(rollupService.findRollupFor(sumOfQtyBy("region"))).isPresent();
+        rollupService.markStale("public", "orders");
+
+        assertThat(rollupService.findRollupFor(sumOfQtyBy("region"))).isEmpty();
+    }
+
+    @Test
+    void ignoresRollupsMissingAGroupedColumn() {
+        when(repository.findBySchemaNameAndTableName("public", "orders"))
+                .thenReturn(List.of(rollup("by_region", "[\"region\"]", false)));
+
+        SelectQueryRequest request = sumOfQtyBy("region");
+        request.setFilters(Map.of("status", "open"));
+
+        assertThat(rollupService.findRollupFor(request)).isEmpty();
+    }
+
+    private static SelectQueryRequest sumOfQtyBy(String column) {
+        return SelectQueryRequest.builder()
+                .schemaName("public")
+                .tableName("orders")
+                .columns(List.of(column))
+                .aggregations(List.of(AggregationRequest.builder().function("SUM").column("qty").alias("qty").build()))
+                .build();
+    }
+
+    private static RollupMetadata rollup(String name, String groupColumnsJson, boolean stale) {
+        return RollupMetadata.builder()
+                .schemaName("public")
+                .tableName("orders")
+                .rollupName(name)
+                .groupColumnsJson(groupColumnsJson)
+                .aggregationsJson("[{\"function\": \"SUM\", \"column\": \"qty\", \"alias\": \"qty\"}]")
+                .stale(stale)
+                .build();
+    }
+}
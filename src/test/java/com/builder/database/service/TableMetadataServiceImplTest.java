@@ -0,0 +1,56 @@
+package com.builder.database.service;
+
+import com.builder.database.config.CacheConfig;
+import com.builder.database.entity.TableMetadata;
+import com.builder.database.repository.TableMetadataRepository;
+import com.builder.database.repository.TempTableMetadataRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TableMetadataServiceImplTest {
+
+    private final TableMetadataRepository repository = mock(TableMetadataRepository.class);
+    private final TableMetadataServiceImpl service = new TableMetadataServiceImpl(mock(JdbcTemplate.class), repository,
+            mock(TempTableMetadataRepository.class), new ObjectMapper(), mock(PartitionService.class),
+            new ConcurrentMapCacheManager(CacheConfig.TABLE_DEFINITIONS, CacheConfig.TABLE_ROUTING));
+
+    @Test
+    void cachesDirectRoutingToo() {
+        when(repository.findBySchemaNameAndTableName("public", "orders")).thenReturn(Optional.of(table(false)));
+
+        assertThat(service.hasStagingTable("public", "orders")).isFalse();
+        assertThat(service.hasStagingTable("public", "orders")).isFalse();
+
+        verify(repository, times(1)).findBySchemaNameAndTableName("public", "orders");
+    }
+
+    @Test
+    void doesNotCacheALookupThatRacedAClear() {
+        when(repository.findBySchemaNameAndTableName("public", "orders"))
+                .thenAnswer(invocation -> {
+                    service.clearTableCaches();
+                    return Optional.of(table(false));
+                })
+                .thenReturn(Optional.of(table(true)));
+
+        assertThat(service.hasStagingTable("public", "orders")).isFalse();
+        assertThat(service.hasStagingTable("public", "orders")).isTrue();
+        assertThat(service.hasStagingTable("public", "orders")).isTrue();
+
+        verify(repository, times(2)).findBySchemaNameAndTableName("public", "orders");
+    }
+
+    private static TableMetadata table(boolean hasTempTable) {
+        return TableMetadata.builder().schemaName("public").tableName("orders").hasTempTable(hasTempTable).build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.builder.database.service;
+
+import com.builder.database.builder.PostgresSqlBuilder;
+import com.builder.database.builder.SelectShape;
+import com.builder.database.config.AdvisorProperties;
+import com.builder.database.model.SelectQueryRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkloadRecorderTest {
+
+    private final AdvisorProperties config = new AdvisorProperties();
+    private final AtomicLong clock = new AtomicLong();
+    private final WorkloadRecorder recorder = new WorkloadRecorder(config, clock::get);
+    private final PostgresSqlBuilder sqlBuilder = new PostgresSqlBuilder();
+
+    @Test
+    void reportsThePercentileAsTheUpperBoundOfItsBucketCappedAtTheMax() {
+        SelectQueryRequest request = byColumn("orders", "region");
+        for (int i = 0; i < 95; i++) {
+            record(request, 3);
+        }
+        for (int i = 0; i < 5; i++) {
+            record(request, 900);
+        }
+
+        WorkloadRecorder.ShapeWorkload shape = recorder.snapshot("public", "orders").get(0);
+
+        assertThat(shape.calls()).isEqualTo(100);
+        assertThat(shape.p95Nanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(4));
+        assertThat(shape.maxNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(900));
+
+        record(request, 900);
+        record(request, 900);
+        assertThat(recorder.snapshot("public", "orders").get(0).p95Nanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    void evictsTheEquallyOldShapeWithTheLeastTime() {
+        config.setMaxShapesPerTable(2);
+        record(byColumn("orders", "region"), 50);
+        record(byColumn("orders", "status"), 5);
+        record(byColumn("orders", "customer"), 20);
+
+        assertThat(recorder.snapshot("public", "orders"))
+                .extracting(shape -> shape.sample().getFilters().keySet().iterator().next())
+                .containsExactlyInAnyOrder("region", "customer");
+    }
+
+    @Test
+    void keepsANewShapeOverAnOldColdOne() {
+        config.setMaxShapesPerTable(2);
+        record(byColumn("orders", "region"), 100);
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+        record(byColumn("orders", "status"), 5);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        record(byColumn("orders", "customer"), 5);
+
+        assertThat(recorder.snapshot("public", "orders"))
+                .extracting(shape -> shape.sample().getFilters().keySet().iterator().next())
+                .containsExactlyInAnyOrder("status", "customer");
+    }
+
+    @Test
+    void keepsANewTableOverAnOldColdOne() {
+        config.setMaxTables(2);
+        record(byColumn("orders", "region"), 100);
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+        record(byColumn("customers", "region"), 5);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        record(byColumn("invoices", "region"), 5);
+
+        assertThat(recorder.snapshot(null, null))
+                .extracting(WorkloadRecorder.ShapeWorkload::tableName)
+                .containsExactlyInAnyOrder("customers", "invoices");
+    }
+
+    @Test
+    void evictsTheEquallyOldTableWithTheLeastTime() {
+        config.setMaxTables(2);
+        record(byColumn("orders", "region"), 50);
+        record(byColumn("customers", "region"), 5);
+        record(byColumn("invoices", "region"), 20);
+
+        assertThat(recorder.snapshot(null, null))
+                .extracting(WorkloadRecorder.ShapeWorkload::tableName)
+                .containsExactlyInAnyOrder("orders", "invoices");
+    }
+
+    @Test
+    void recordsNothingWhenDisabled() {
+        config.setEnabled(false);
+        record(byColumn("orders", "region"), 50);
+
+        assertThat(recorder.snapshot(null, null)).isEmpty();
+    }
+
+    private void record(SelectQueryRequest request, long millis) {
+        SelectShape shape = sqlBuilder.buildSelectShape(request);
+        recorder.record(shape, request, TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static SelectQueryRequest byColumn(String table, String column) {
+        return SelectQueryRequest.builder()
+                .schemaName("public")
+                .tableName(table)
+                .columns(List.of("id"))
+                .filters(Map.of(column, "x"))
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.builder.database.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    private static final int PRECISION = 12; // standard error 1.04 / sqrt(4096) ~ 1.6%
+
+    @Test
+    void estimatesLargeCardinalitiesWithinTheStandardError() {
+        HyperLogLog hll = new HyperLogLog(PRECISION);
+        for (long i = 0; i < 1_000_000; i++) {
+            add(hll, i);
+        }
+
+        // Four standard errors.
+        assertThat((double) hll.estimate()).isCloseTo(1_000_000, within(65_000d));
+    }
+
+    @Test
+    void usesLinearCountingWhileMostRegistersAreEmpty() {
+        HyperLogLog hll = new HyperLogLog(PRECISION);
+        for (long i = 0; i < 1_000; i++) {
+            add(hll, i);
+        }
+
+        assertThat((double) hll.estimate()).isCloseTo(1_000, within(30d));
+    }
+
+    @Test
+    void ignoresRepeatedValues() {
+        HyperLogLog hll = new HyperLogLog(PRECISION);
+        assertThat(hll.estimate()).isZero();
+        for (int round = 0; round < 10; round++) {
+            for (long i = 0; i < 500; i++) {
+                add(hll, i);
+            }
+        }
+
+        assertThat((double) hll.estimate()).isCloseTo(500, within(20d));
+    }
+
+    @Test
+    void rejectsPrecisionOutOfRange() {
+        assertThatThrownBy(() -> new HyperLogLog(HyperLogLog.MAX_PRECISION + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Mirrors buildHllRegisterSql: low bits pick the register, the rank is the first set bit of the next 63 - p.
+    private static void add(HyperLogLog hll, long value) {
+        long hash = mix(value);
+        int rankBits = 63 - PRECISION;
+        long rest = (hash >> PRECISION) & ((1L << rankBits) - 1);
+        int register = (int) (hash & ((1L << PRECISION) - 1));
+        int rank = rest == 0 ? rankBits + 1 : Long.numberOfLeadingZeros(rest) - (64 - rankBits) + 1;
+        hll.update(register, rank);
+    }
+
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
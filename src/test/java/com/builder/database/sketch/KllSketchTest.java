@@ -0,0 +1,58 @@
+package com.builder.database.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class KllSketchTest {
+
+    private static final int K = 200; // rank error ~ 1.65 / k ~ 0.8%
+
+    @Test
+    void returnsQuantilesWithinTheRankErrorAfterManyCompactions() {
+        int n = 100_000;
+        List<Double> values = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            values.add((double) i);
+        }
+        Collections.shuffle(values, new Random(42));
+        KllSketch sketch = new KllSketch(K);
+        values.forEach(sketch::update);
+
+        for (double fraction : new double[] {0.01, 0.25, 0.5, 0.75, 0.95, 0.99}) {
+            // The value of 1..n at a rank is the rank itself; allow twice the expected error.
+            assertThat(sketch.quantile(fraction) / n).as("q%.2f", fraction).isCloseTo(fraction, within(0.02));
+        }
+    }
+
+    @Test
+    void isExactBeforeTheFirstCompaction() {
+        KllSketch sketch = new KllSketch(K);
+        for (int i = 1; i <= 100; i++) {
+            sketch.update(i);
+        }
+
+        assertThat(sketch.quantile(0.5)).isEqualTo(50d);
+        assertThat(sketch.quantile(1.0)).isEqualTo(100d);
+    }
+
+    @Test
+    void hasNoQuantileWhenEmpty() {
+        KllSketch sketch = new KllSketch(K);
+
+        assertThat(sketch.isEmpty()).isTrue();
+        assertThat(sketch.quantile(0.5)).isNull();
+    }
+
+    @Test
+    void rejectsATinyK() {
+        assertThatThrownBy(() -> new KllSketch(4)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
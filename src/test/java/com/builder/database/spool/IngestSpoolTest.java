@@ -0,0 +1,88 @@
+package com.builder.database.spool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestSpoolTest {
+
+    private static final long SYNC_INTERVAL_NANOS = 1_000_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackWhatWasAppendedAfterAReopen() throws IOException {
+        try (IngestSpool spool = open(1024)) {
+            spool.append(bytes("first"));
+            spool.append(bytes("second"));
+        }
+
+        try (IngestSpool spool = open(1024)) {
+            assertThat(payloads(spool.read(0, Long.MAX_VALUE))).containsExactly("first", "second");
+        }
+    }
+
+    @Test
+    void keepsTheCheckpointAndDropsConsumedSegments() throws IOException {
+        long thirdOffset;
+        try (IngestSpool spool = open(32)) { // two records per segment
+            spool.append(bytes("record-1"));
+            spool.append(bytes("record-2"));
+            spool.append(bytes("record-3"));
+            List<IngestSpool.Entry> entries = spool.read(0, Long.MAX_VALUE);
+            thirdOffset = entries.get(2).offset();
+            spool.checkpoint(thirdOffset);
+        }
+
+        try (IngestSpool spool = open(32)) {
+            assertThat(spool.checkpoint()).isEqualTo(thirdOffset);
+            assertThat(payloads(spool.read(spool.checkpoint(), Long.MAX_VALUE))).containsExactly("record-3");
+        }
+        assertThat(segmentFiles()).hasSize(1);
+    }
+
+    @Test
+    void truncatesATornRecordAtTheTail() throws IOException {
+        try (IngestSpool spool = open(1024)) {
+            spool.append(bytes("kept"));
+        }
+        Path segment = segmentFiles().get(0);
+        long validBytes = Files.size(segment);
+        // Header of a 100-byte record whose payload never made it to disk.
+        Files.write(segment, new byte[] {0, 0, 0, 100, 1, 2, 3, 4, 'x'}, StandardOpenOption.APPEND);
+
+        try (IngestSpool spool = open(1024)) {
+            assertThat(Files.size(segment)).isEqualTo(validBytes);
+            spool.append(bytes("after"));
+            assertThat(payloads(spool.read(0, Long.MAX_VALUE))).containsExactly("kept", "after");
+        }
+    }
+
+    private IngestSpool open(long segmentBytes) throws IOException {
+        return new IngestSpool(directory, segmentBytes, SYNC_INTERVAL_NANOS);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> payloads(List<IngestSpool.Entry> entries) {
+        return entries.stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList();
+    }
+}